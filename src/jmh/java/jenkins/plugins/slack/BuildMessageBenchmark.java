@@ -0,0 +1,120 @@
+package jenkins.plugins.slack;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.TestResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the messages {@link ActiveNotifier} builds when a build completes, for builds with many failed tests
+ * and many commits. Lives next to ActiveNotifier to reach its package-private methods; the builds are Mockito
+ * mocks, so every run includes the same stubbing overhead and only relative numbers are meaningful.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuildMessageBenchmark {
+
+    /**
+     * Number of failed tests and of changeset entries of the build.
+     */
+    @Param({"10", "1000"})
+    public int size;
+
+    private SlackNotifier notifier;
+    private AbstractBuild build;
+    private BuildAwareLogger log;
+    private TokenExpander tokenExpander;
+    private ActiveNotifier activeNotifier;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        notifier = mock(SlackNotifier.class);
+        when(notifier.getCommitInfoChoice()).thenReturn(CommitInfoChoice.AUTHORS_AND_TITLES);
+        when(notifier.getNotifyBackToNormal()).thenReturn(true);
+        log = mock(BuildAwareLogger.class);
+        tokenExpander = mock(TokenExpander.class);
+        activeNotifier = new ActiveNotifier(notifier, null, log, tokenExpander);
+
+        AbstractProject project = mock(AbstractProject.class);
+        when(project.getFullDisplayName()).thenReturn("folder \u00bb my-project");
+        AbstractBuild previous = mock(AbstractBuild.class);
+        when(previous.getResult()).thenReturn(Result.UNSTABLE);
+        build = mock(AbstractBuild.class);
+        when(build.getParent()).thenReturn(project);
+        when(build.getDisplayName()).thenReturn("#1234");
+        when(build.getNumber()).thenReturn(1234);
+        when(build.getResult()).thenReturn(Result.UNSTABLE);
+        when(build.getDurationString()).thenReturn("12 min");
+        when(build.getPreviousBuild()).thenReturn(previous);
+        when(build.getPreviousSuccessfulBuild()).thenReturn(previous);
+        when(project.getLastBuild()).thenReturn(build);
+
+        List<TestResult> failedTests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TestResult test = mock(TestResult.class);
+            when(test.getFullDisplayName())
+                    .thenReturn("com.example.service.OrderServiceTest.shouldRejectOrder[" + i + "]");
+            when(test.getDurationString()).thenReturn("0.12 sec");
+            failedTests.add(test);
+        }
+        AbstractTestResultAction action = mock(AbstractTestResultAction.class);
+        when(action.getTotalCount()).thenReturn(size * 20);
+        when(action.getFailCount()).thenReturn(size);
+        when(action.getSkipCount()).thenReturn(12);
+        when(action.getFailedTests()).thenReturn(failedTests);
+        when(build.getAction(AbstractTestResultAction.class)).thenReturn(action);
+
+        Object[] entries = new Object[size];
+        for (int i = 0; i < size; i++) {
+            User author = mock(User.class);
+            when(author.getDisplayName()).thenReturn("Developer " + (i % 25));
+            ChangeLogSet.Entry entry = mock(ChangeLogSet.Entry.class);
+            when(entry.getMsg()).thenReturn("JIRA-" + i + " Reject orders with an expired payment token");
+            when(entry.getAuthor()).thenReturn(author);
+            entries[i] = entry;
+        }
+        ChangeLogSet changeSet = mock(ChangeLogSet.class);
+        when(changeSet.iterator()).thenAnswer(invocation -> Arrays.asList(entries).iterator());
+        when(build.getChangeSet()).thenReturn(changeSet);
+    }
+
+    /**
+     * What {@code getBuildStatusMessage(build, true, true, false)} builds, except for the open link:
+     * DisplayURLProvider needs a running Jenkins.
+     */
+    @Benchmark
+    public String buildStatusMessage() {
+        ActiveNotifier.MessageBuilder message = new ActiveNotifier.MessageBuilder(notifier, build, log, tokenExpander);
+        message.appendStatusMessage();
+        message.appendDuration();
+        message.appendTestSummary();
+        message.appendFailedTests();
+        return message.toString();
+    }
+
+    @Benchmark
+    public String commitList() {
+        return activeNotifier.getCommitList(build);
+    }
+}
@@ -0,0 +1,65 @@
+package jenkins.plugins.slack.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.MessageEscaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link MessageEscaper} with the escaping it replaced, on the kinds of text MessageBuilder appends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EscapeBenchmark {
+
+    @Param({"status", "customMessage", "failedTests"})
+    public String input;
+
+    private String text;
+    private final StringBuilder message = new StringBuilder();
+
+    @Setup
+    public void setUp() {
+        switch (input) {
+            case "status":
+                text = "folder \u00bb my-project - #1234 Back to normal";
+                break;
+            case "customMessage":
+                text = "Deployed to <a href=\"https://staging.example.com/app?build=1234&env=eu\">staging</a>, "
+                        + "see <a href='https://wiki.example.com/release'>release notes</a> & ping {team} if 100% broken";
+                break;
+            default:
+                StringBuilder failedTests = new StringBuilder();
+                for (int i = 0; i < 200; i++) {
+                    failedTests.append("\tcom.example.service.OrderServiceTest.shouldRejectOrder<Case").append(i)
+                            .append("> after 0.12 sec\n");
+                }
+                text = failedTests.toString();
+                break;
+        }
+    }
+
+    @Benchmark
+    public String legacy() {
+        return LegacyEscaper.escape(text);
+    }
+
+    @Benchmark
+    public String escaper() {
+        return MessageEscaper.escape(text);
+    }
+
+    @Benchmark
+    public int escaperIntoMessage() {
+        message.setLength(0);
+        MessageEscaper.escape(text, message);
+        return message.length();
+    }
+}
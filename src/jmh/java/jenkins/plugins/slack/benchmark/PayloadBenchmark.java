@@ -0,0 +1,119 @@
+package jenkins.plugins.slack.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.CloseableHttpClientStub;
+import jenkins.plugins.slack.CloseableHttpResponseStub;
+import jenkins.plugins.slack.SlackPostResult;
+import jenkins.plugins.slack.StandardSlackService;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long {@link StandardSlackService} takes to build and serialize the payloads of one notification,
+ * for webhook and bot user integrations posting to one or many rooms. The HTTP client writes every request body
+ * to a sink and answers 200 straight away, and the rate limits are raised so they never hold back a post.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(jvmArgsAppend = {
+        "-Djenkins.plugins.slack.http.SlackRateLimiter.workspacePerMinute=2147483647",
+        "-Djenkins.plugins.slack.http.SlackRateLimiter.workspaceBurst=2147483647",
+        "-Djenkins.plugins.slack.http.SlackRateLimiter.channelPerSecond=2147483647",
+        "-Djenkins.plugins.slack.http.SlackRateLimiter.channelBurst=2147483647"
+})
+public class PayloadBenchmark {
+
+    @Param({"webhook", "bot"})
+    public String integration;
+
+    @Param({"1", "10"})
+    public int rooms;
+
+    private StandardSlackService service;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        StringBuilder roomIds = new StringBuilder();
+        for (int i = 0; i < rooms; i++) {
+            roomIds.append(i == 0 ? "" : ",").append("#team-channel-").append(i);
+        }
+        boolean botUser = "bot".equals(integration);
+        service = new DiscardingSlackService(botUser ? "" : "https://hooks.example.com/services/", "example",
+                botUser, roomIds.toString());
+
+        StringBuilder text = new StringBuilder("folder \u00bb my-project - #1234 Still Failing after 12 min"
+                + " (<https://jenkins.example.com/job/folder/job/my-project/1234/display/redirect|Open>)\n"
+                + "Test Status:\n\tPassed: 1840, Failed: 25, Skipped: 12\n25 Failed Tests:\n");
+        for (int i = 0; i < 25; i++) {
+            text.append("\tOrderServiceTest.shouldRejectOrder[").append(i).append("] after 0.12 sec\n");
+        }
+        message = text.toString();
+    }
+
+    @Benchmark
+    public List<SlackPostResult> publish() {
+        return service.publishWithResults(message, "danger");
+    }
+
+    private static final class DiscardingSlackService extends StandardSlackService {
+
+        private final CloseableHttpClient client = new DiscardingHttpClient();
+
+        DiscardingSlackService(String baseUrl, String teamDomain, boolean botUser, String roomId) {
+            super(baseUrl, teamDomain, botUser, roomId, false, "token");
+        }
+
+        @Override
+        protected CloseableHttpClient getHttpClient() {
+            return client;
+        }
+    }
+
+    private static final class DiscardingHttpClient extends CloseableHttpClientStub {
+
+        private final OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        @Override
+        public CloseableHttpResponse execute(HttpUriRequest request) {
+            try {
+                ((HttpEntityEnclosingRequest) request).getEntity().writeTo(sink);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return new CloseableHttpResponseStub(200) {
+                @Override
+                public HttpEntity getEntity() {
+                    return new StringEntity("{\"ok\":true,\"channel\":\"C0123456\",\"ts\":\"1536000000.000100\"}",
+                            ContentType.APPLICATION_JSON);
+                }
+            };
+        }
+    }
+}
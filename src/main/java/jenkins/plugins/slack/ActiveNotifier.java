@@ -8,28 +8,20 @@ import hudson.model.CauseAction;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.scm.ChangeLogSet;
-import hudson.scm.ChangeLogSet.AffectedFile;
-import hudson.scm.ChangeLogSet.Entry;
-import hudson.tasks.junit.TestResultAction;
 import hudson.tasks.test.AbstractTestResultAction;
 import hudson.tasks.test.TestResult;
 import hudson.triggers.SCMTrigger;
-import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import jenkins.model.Jenkins;
 import jenkins.plugins.slack.decisions.Context;
 import jenkins.plugins.slack.decisions.NotificationConditions;
+import jenkins.plugins.slack.dispatch.ChannelDigest;
 import jenkins.plugins.slack.logging.BuildAwareLogger;
 import jenkins.plugins.slack.logging.BuildKey;
 import jenkins.plugins.slack.matrix.MatrixTriggerMode;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
 
@@ -39,6 +31,8 @@ public class ActiveNotifier implements FineGrainedNotifier {
     private final Function<AbstractBuild<?, ?>, SlackService> slackFactory;
     private final BuildAwareLogger log;
     private final TokenExpander tokenExpander;
+    private AbstractBuild<?, ?> resolvedBuild;
+    private AbstractBuild<?, ?> previousNonAbortedBuild;
 
     public ActiveNotifier(SlackNotifier notifier, Function<AbstractBuild<?, ?>, SlackService> slackFactory, BuildAwareLogger log, TokenExpander tokenExpander) {
         super();
@@ -107,11 +101,8 @@ public class ActiveNotifier implements FineGrainedNotifier {
         }
         AbstractProject<?, ?> project = r.getProject();
         Result result = r.getResult();
-        AbstractBuild<?, ?> previousBuild = project.getLastBuild();
-        if (null != previousBuild) {
-            do {
-                previousBuild = previousBuild.getPreviousCompletedBuild();
-            } while (previousBuild != null && previousBuild.getResult() == Result.ABORTED);
+        if (null != project.getLastBuild()) {
+            AbstractBuild<?, ?> previousBuild = getPreviousNonAbortedBuild(r);
             Result previousResult = (previousBuild != null) ? previousBuild.getResult() : Result.SUCCESS;
             if(null != previousResult && (result != null && result.isWorseThan(previousResult) || moreTestFailuresThanPreviousBuild(r, previousBuild)) && notifier.getNotifyRegression()) {
                 String message = getBuildStatusMessage(r, notifier.getIncludeTestSummary(),
@@ -130,11 +121,8 @@ public class ActiveNotifier implements FineGrainedNotifier {
         }
         String key = BuildKey.format(r);
         AbstractProject<?, ?> project = r.getProject();
-        AbstractBuild<?, ?> previousBuild = project.getLastBuild();
-        if (null != previousBuild) {
-            do {
-                previousBuild = previousBuild.getPreviousCompletedBuild();
-            } while (null != previousBuild && previousBuild.getResult() == Result.ABORTED);
+        if (null != project.getLastBuild()) {
+            AbstractBuild<?, ?> previousBuild = getPreviousNonAbortedBuild(r);
             if (null != previousBuild) {
                 log.info(key, "found #%d as previous completed, non-aborted build", previousBuild.getNumber());
             } else {
@@ -143,6 +131,14 @@ public class ActiveNotifier implements FineGrainedNotifier {
 
             NotificationConditions conditions = NotificationConditions.create(notifier, log);
             if (conditions.test(new Context(r, previousBuild))) {
+                if (notifier.getChannelDigest()) {
+                    log.debug(key, "adding to the channel digest");
+                    // the digest is shared by every job posting to the channel, not merged into this job's window
+                    SlackService service = ChannelDigest.unwrap(slackFactory.apply(r));
+                    ChannelDigest.add(SlackNotifier.destinationKey(service), service, r.getResult(),
+                            getBuildStatusMessage(r, false, false, false));
+                    return;
+                }
                 String message = getBuildStatusMessage(r, notifier.getIncludeTestSummary(),
                         notifier.getIncludeFailedTests(), notifier.getIncludeCustomMessage());
                 if (notifier.getCommitInfoChoice().showAnything()) {
@@ -161,29 +157,55 @@ public class ActiveNotifier implements FineGrainedNotifier {
         return false;
     }
 
-    private boolean moreTestFailuresThanPreviousBuild(AbstractBuild currentBuild, AbstractBuild<?, ?> previousBuild) {
-        if (getTestResult(currentBuild) != null && getTestResult(previousBuild) != null) {
-            if (getTestResult(currentBuild).getFailCount() > getTestResult(previousBuild).getFailCount())
-                return true;
-
-            // test if different tests failed.
-            return !getFailedTestIds(currentBuild).equals(getFailedTestIds(previousBuild));
-        }
-        return false;
+    /**
+     * The last completed build before the latest build of the project that wasn't aborted. Taken from the job's
+     * {@link BuildStreak} when it is up to date, otherwise walking back past aborted builds, which may load each of
+     * them from disk. Either way it is only done once per build by this notifier.
+     */
+    AbstractBuild<?, ?> getPreviousNonAbortedBuild(AbstractBuild<?, ?> build) {
+        if (resolvedBuild != build) {
+            previousNonAbortedBuild = findPreviousNonAbortedBuild(build);
+            resolvedBuild = build;
+        }
+        return previousNonAbortedBuild;
     }
 
-    private TestResultAction getTestResult(AbstractBuild build) {
-        return build.getAction(TestResultAction.class);
+    private static AbstractBuild<?, ?> findPreviousNonAbortedBuild(AbstractBuild<?, ?> build) {
+        AbstractProject<?, ?> project = build.getProject();
+        AbstractBuild<?, ?> previousBuild = project.getLastBuild();
+        if (previousBuild == build) {
+            BuildStreak streak = BuildStreak.before(build);
+            if (streak != null) {
+                int number = streak.getLastNonAbortedNumber();
+                AbstractBuild<?, ?> recorded = number > 0 ? project.getBuildByNumber(number) : null;
+                if (number == 0 || recorded != null) {
+                    return recorded;
+                }
+            }
+        }
+        if (previousBuild != null) {
+            do {
+                previousBuild = previousBuild.getPreviousCompletedBuild();
+            } while (previousBuild != null && previousBuild.getResult() == Result.ABORTED);
+        }
+        return previousBuild;
     }
 
-    private Set<String> getFailedTestIds(AbstractBuild currentBuild) {
-        Set<String> failedTestIds = new HashSet<>();
-        List<? extends TestResult> failedTests = getTestResult(currentBuild).getFailedTests();
-        for(TestResult result : failedTests) {
-            failedTestIds.add(result.getId());
+    private boolean moreTestFailuresThanPreviousBuild(AbstractBuild currentBuild, AbstractBuild<?, ?> previousBuild) {
+        if (previousBuild == null) {
+            return false;
         }
-
-        return failedTestIds;
+        // the fingerprint of the current build is kept with it, so the next build can compare without its report
+        FailedTestsFingerprint current = FailedTestsFingerprint.attachTo(currentBuild);
+        if (current == null) {
+            return false;
+        }
+        FailedTestsFingerprint previous = FailedTestsFingerprint.of(previousBuild);
+        if (previous == null) {
+            return false;
+        }
+        // more failures, or different tests failed
+        return current.getFailCount() > previous.getFailCount() || !current.hasSameFailuresAs(previous);
     }
 
     String getChanges(AbstractBuild r, boolean includeCustomMessage) {
@@ -192,30 +214,17 @@ public class ActiveNotifier implements FineGrainedNotifier {
             log.debug(key, "did not have change set computed");
             return null;
         }
-        ChangeLogSet changeSet = r.getChangeSet();
-        List<Entry> entries = new LinkedList<>();
-        Set<AffectedFile> files = new HashSet<>();
-        for (Object o : changeSet.getItems()) {
-            Entry entry = (Entry) o;
-            log.debug(key, "adding changeset entry: %s", o);
-            entries.add(entry);
-            if (CollectionUtils.isNotEmpty(entry.getAffectedFiles())) {
-                files.addAll(entry.getAffectedFiles());
-            }
-        }
-        if (entries.isEmpty()) {
+        ChangeSetSummary changes = ChangeSetSummary.of(r.getChangeSet(), null);
+        if (changes.isEmpty()) {
             log.debug(key, "did not have entries in changeset");
             return null;
         }
-        Set<String> authors = new HashSet<>();
-        for (Entry entry : entries) {
-            authors.add(entry.getAuthor().getDisplayName());
-        }
+        log.debug(key, "changeset has %d entries", changes.getEntryCount());
         MessageBuilder message = new MessageBuilder(notifier, r, log, tokenExpander);
         message.append("Started by changes from ");
-        message.append(StringUtils.join(authors, ", "));
+        message.append(changes.getAuthorList());
         message.append(" (");
-        message.append(files.size());
+        message.append(changes.getFileCount());
         message.append(" file(s) changed)");
         message.appendOpenLink();
         if (includeCustomMessage) {
@@ -226,42 +235,27 @@ public class ActiveNotifier implements FineGrainedNotifier {
 
     String getCommitList(AbstractBuild r) {
         String buildKey = BuildKey.format(r);
-        ChangeLogSet changeSet = r.getChangeSet();
-        List<Entry> entries = new LinkedList<>();
-        for (Object o : changeSet.getItems()) {
-            Entry entry = (Entry) o;
-            log.debug(buildKey, "adding changeset entry: %s", o);
-            entries.add(entry);
-        }
-        if (entries.isEmpty()) {
+        AbstractBuild<?, ?> changesBuild = r;
+        ChangeSetSummary changes = ChangeSetSummary.of(r.getChangeSet(), notifier.getCommitInfoChoice());
+        if (changes.isEmpty()) {
             log.debug(buildKey, "did not have entries in changeset");
-            Cause.UpstreamCause c = (Cause.UpstreamCause)r.getCause(Cause.UpstreamCause.class);
-            if (c == null) {
+            List<AbstractBuild<?, ?>> upstreamBuilds = UpstreamChanges.of(r);
+            if (upstreamBuilds.isEmpty()) {
                 return "No Changes.";
             }
-            String upProjectName = c.getUpstreamProject();
-            int buildNumber = c.getUpstreamBuild();
-            AbstractProject project = Jenkins.get().getItemByFullName(upProjectName, AbstractProject.class);
-            if (project != null) {
-                AbstractBuild upBuild = project.getBuildByNumber(buildNumber);
-                return getCommitList(upBuild);
-            }
-        }
-        Set<String> commits = new HashSet<>();
-        for (Entry entry : entries) {
-            StringBuilder commit = new StringBuilder();
-            CommitInfoChoice commitInfoChoice = notifier.getCommitInfoChoice();
-            if (commitInfoChoice.showTitle()) {
-                commit.append(entry.getMsg());
-            }
-            if (commitInfoChoice.showAuthor()) {
-                commit.append(" [").append(entry.getAuthor().getDisplayName()).append("]");
+            log.debug(buildKey, "using the changes of %d upstream build(s)", upstreamBuilds.size());
+            List<ChangeLogSet<?>> changeSets = new ArrayList<>(upstreamBuilds.size());
+            for (AbstractBuild<?, ?> upstreamBuild : upstreamBuilds) {
+                changeSets.add(upstreamBuild.getChangeSet());
             }
-            commits.add(commit.toString());
+            changes = ChangeSetSummary.of(changeSets, notifier.getCommitInfoChoice());
+            // the list is built for the nearest upstream build with changes, as it was when following a single cause
+            changesBuild = upstreamBuilds.get(0);
         }
-        MessageBuilder message = new MessageBuilder(notifier, r, log, tokenExpander);
+        log.debug(buildKey, "changeset has %d entries", changes.getEntryCount());
+        MessageBuilder message = new MessageBuilder(notifier, changesBuild, log, tokenExpander);
         message.append("Changes:\n- ");
-        message.append(StringUtils.join(commits, "\n- "));
+        message.append(changes.getCommitList());
         return message.toString();
     }
 
@@ -278,6 +272,9 @@ public class ActiveNotifier implements FineGrainedNotifier {
 
     String getBuildStatusMessage(AbstractBuild r, boolean includeTestSummary, boolean includeFailedTests, boolean includeCustomMessage) {
         MessageBuilder message = new MessageBuilder(notifier, r, log, tokenExpander);
+        if (r.getResult() != null) {
+            message.setPreviousBuild(getPreviousNonAbortedBuild(r));
+        }
         message.appendStatusMessage();
         message.appendDuration();
         message.appendOpenLink();
@@ -295,8 +292,6 @@ public class ActiveNotifier implements FineGrainedNotifier {
 
     public static class MessageBuilder {
 
-        private static final Pattern aTag = Pattern.compile("(?i)<a([^>]+)>(.+?)</a>|([{%])");
-        private static final Pattern href = Pattern.compile("\\s*(?i)href\\s*=\\s*(\"([^\"]*\")|'[^']*'|([^'\">\\s]+))");
         private static final String BACK_TO_NORMAL_STATUS_MESSAGE = "Back to normal",
                                     STILL_FAILING_STATUS_MESSAGE = "Still Failing",
                                     SUCCESS_STATUS_MESSAGE = "Success",
@@ -313,6 +308,8 @@ public class ActiveNotifier implements FineGrainedNotifier {
         private final String buildKey;
         private final TokenExpander tokenExpander;
         private AbstractBuild build;
+        private Run previousBuild;
+        private boolean previousBuildKnown;
 
         public MessageBuilder(SlackNotifier notifier, AbstractBuild build, BuildAwareLogger log, TokenExpander tokenExpander) {
             this.notifier = notifier;
@@ -324,8 +321,18 @@ public class ActiveNotifier implements FineGrainedNotifier {
             startMessage();
         }
 
+        /**
+         * Sets the build the status is worked out against, when the caller already knows the last non-aborted build
+         * before this one, instead of walking back to it again.
+         */
+        public MessageBuilder setPreviousBuild(Run previousBuild) {
+            this.previousBuild = previousBuild;
+            this.previousBuildKnown = true;
+            return this;
+        }
+
         public MessageBuilder appendStatusMessage() {
-            message.append(this.escape(getStatusMessage(build)));
+            MessageEscaper.escape(getStatusMessage(build), message);
             return this;
         }
 
@@ -335,29 +342,35 @@ public class ActiveNotifier implements FineGrainedNotifier {
             if(null != result) {
                 AbstractBuild lastBuild = r.getProject().getLastBuild();
                 if (lastBuild != null) {
-                    Run previousBuild = lastBuild.getPreviousBuild();
-                    Run previousSuccessfulBuild = r.getPreviousSuccessfulBuild();
-                    boolean buildHasSucceededBefore = previousSuccessfulBuild != null;
-
                     /*
                      * If the last build was aborted, go back to find the last non-aborted build.
                      * This is so that aborted builds do not affect build transitions.
                      * I.e. if build 1 was failure, build 2 was aborted and build 3 was a success the transition
                      * should be failure -> success (and therefore back to normal) not aborted -> success.
                      */
-                    Run lastNonAbortedBuild = previousBuild;
-                    while (lastNonAbortedBuild != null && lastNonAbortedBuild.getResult() == Result.ABORTED) {
-                        lastNonAbortedBuild = lastNonAbortedBuild.getPreviousBuild();
+                    BuildStreak streak = BuildStreak.before(r);
+                    boolean hasNonAbortedBuild;
+                    if (previousBuildKnown) {
+                        hasNonAbortedBuild = previousBuild != null;
+                        previousResult = hasNonAbortedBuild ? previousBuild.getResult() : null;
+                    } else if (streak != null) {
+                        hasNonAbortedBuild = streak.getLastNonAbortedNumber() > 0;
+                        previousResult = streak.getLastNonAbortedResult();
+                    } else {
+                        Run lastNonAbortedBuild = lastBuild.getPreviousBuild();
+                        while (lastNonAbortedBuild != null && lastNonAbortedBuild.getResult() == Result.ABORTED) {
+                            lastNonAbortedBuild = lastNonAbortedBuild.getPreviousBuild();
+                        }
+                        hasNonAbortedBuild = lastNonAbortedBuild != null;
+                        previousResult = hasNonAbortedBuild ? lastNonAbortedBuild.getResult() : null;
                     }
 
 
                     /* If all previous builds have been aborted, then use
                      * SUCCESS as a default status so an aborted message is sent
                      */
-                    if (lastNonAbortedBuild == null) {
+                    if (!hasNonAbortedBuild) {
                         previousResult = Result.SUCCESS;
-                    } else {
-                        previousResult = lastNonAbortedBuild.getResult();
                     }
 
                     /* Back to normal should only be shown if the build has actually succeeded at some point.
@@ -366,7 +379,8 @@ public class ActiveNotifier implements FineGrainedNotifier {
                      */
                     if (result == Result.SUCCESS
                             && (previousResult == Result.FAILURE || previousResult == Result.UNSTABLE)
-                            && buildHasSucceededBefore && notifier.getNotifyBackToNormal()) {
+                            && notifier.getNotifyBackToNormal()
+                            && (streak != null ? streak.hasSucceeded() : r.getPreviousSuccessfulBuild() != null)) {
                         return BACK_TO_NORMAL_STATUS_MESSAGE;
                     }
                     if (result == Result.FAILURE && previousResult == Result.FAILURE) {
@@ -387,7 +401,7 @@ public class ActiveNotifier implements FineGrainedNotifier {
                     if (result == Result.UNSTABLE) {
                         return UNSTABLE_STATUS_MESSAGE;
                     }
-                    if (lastNonAbortedBuild != null && previousResult != null && result.isWorseThan(previousResult)) {
+                    if (hasNonAbortedBuild && previousResult != null && result.isWorseThan(previousResult)) {
                         return REGRESSION_STATUS_MESSAGE;
                     }
                 }
@@ -396,19 +410,19 @@ public class ActiveNotifier implements FineGrainedNotifier {
         }
 
         public MessageBuilder append(String string) {
-            message.append(this.escape(string));
+            MessageEscaper.escape(string, message);
             return this;
         }
 
         public MessageBuilder append(Object string) {
-            message.append(this.escape(string.toString()));
+            MessageEscaper.escape(string.toString(), message);
             return this;
         }
 
         private MessageBuilder startMessage() {
-            message.append(this.escape(build.getProject().getFullDisplayName()));
+            MessageEscaper.escape(build.getProject().getFullDisplayName(), message);
             message.append(" - ");
-            message.append(this.escape(build.getDisplayName()));
+            MessageEscaper.escape(build.getDisplayName(), message);
             message.append(" ");
             return this;
         }
@@ -456,15 +470,93 @@ public class ActiveNotifier implements FineGrainedNotifier {
                 int failed = action.getFailCount();
                 if (failed > 0) {
                     message.append("\n").append(failed).append(" Failed Tests:\n");
-                    for(TestResult result : action.getFailedTests()) {
-                        message.append("\t").append(getTestClassAndMethod(result)).append(" after ")
-                                .append(result.getDurationString()).append("\n");
+                    FailedTestsLimits limits = FailedTestsLimits.get();
+                    List<? extends TestResult> failedTests = action.getFailedTests();
+                    int hidden = limits.isGroupByClass()
+                            ? appendFailedTestsByClass(failedTests, limits)
+                            : appendFailedTestsByName(failedTests, limits);
+                    if (hidden > 0) {
+                        message.append("\u2026and ").append(hidden).append(" more\n");
                     }
                 }
             }
             return this;
         }
 
+        /**
+         * Lists failed tests one per line until either limit is reached.
+         *
+         * @return how many failed tests were left out
+         */
+        private int appendFailedTestsByName(List<? extends TestResult> failedTests, FailedTestsLimits limits) {
+            int start = message.length();
+            int shown = 0;
+            for (TestResult result : failedTests) {
+                if (shown == limits.getMaxTests()) {
+                    break;
+                }
+                int end = message.length();
+                message.append("\t").append(getTestClassAndMethod(result)).append(" after ")
+                        .append(result.getDurationString()).append("\n");
+                if (message.length() - start > limits.getMaxLength()) {
+                    message.setLength(end);
+                    break;
+                }
+                shown++;
+            }
+            return failedTests.size() - shown;
+        }
+
+        /**
+         * Lists one line per test class with its number of failures, naming the first failed tests, until either
+         * limit is reached. Classes first seen after the limit of tests are only counted.
+         *
+         * @return how many failed tests were left out
+         */
+        private int appendFailedTestsByClass(List<? extends TestResult> failedTests, FailedTestsLimits limits) {
+            Map<String, FailedTestClass> classes = new LinkedHashMap<>();
+            int named = 0;
+            for (TestResult result : failedTests) {
+                String name = getTestClassAndMethod(result);
+                int dot = name.lastIndexOf('.');
+                String className = dot > 0 ? name.substring(0, dot) : name;
+                FailedTestClass testClass = classes.get(className);
+                if (testClass == null) {
+                    if (classes.size() == limits.getMaxTests()) {
+                        continue;
+                    }
+                    testClass = new FailedTestClass(className);
+                    classes.put(className, testClass);
+                }
+                testClass.failures++;
+                if (dot > 0 && named < limits.getMaxTests()) {
+                    testClass.methods.add(name.substring(dot + 1));
+                    named++;
+                }
+            }
+
+            int start = message.length();
+            int shown = 0;
+            for (FailedTestClass testClass : classes.values()) {
+                int end = message.length();
+                message.append("\t").append(testClass.name).append(": ").append(testClass.failures).append(" failed");
+                if (!testClass.methods.isEmpty()) {
+                    message.append(" (").append(StringUtils.join(testClass.methods, ", "));
+                    if (testClass.methods.size() < testClass.failures) {
+                        message.append(", \u2026");
+                    }
+                    message.append(")");
+                }
+                message.append("\n");
+                if (message.length() - start > limits.getMaxLength()) {
+                    message.setLength(end);
+                    break;
+                }
+                shown += testClass.failures;
+            }
+            return failedTests.size() - shown;
+        }
+
         public MessageBuilder appendCustomMessage(Result buildResult) {
             String customMessage = "";
             if (buildResult != null) {
@@ -506,6 +598,11 @@ public class ActiveNotifier implements FineGrainedNotifier {
         private String createBackToNormalDurationString(){
             // This status code guarantees that the previous build fails and has been successful before
             // The back to normal time is the time since the build first broke
+            BuildStreak streak = BuildStreak.before(build);
+            if (streak != null && streak.getStreakStartEndMillis() > 0) {
+                long buildEndTime = build.getStartTimeInMillis() + build.getDuration();
+                return Util.getTimeSpanString(buildEndTime - streak.getStreakStartEndMillis());
+            }
             Run previousSuccessfulBuild = build.getPreviousSuccessfulBuild();
             if (null != previousSuccessfulBuild && null != previousSuccessfulBuild.getNextBuild()) {
                 Run initialFailureAfterPreviousSuccessfulBuild = previousSuccessfulBuild.getNextBuild();
@@ -523,49 +620,22 @@ public class ActiveNotifier implements FineGrainedNotifier {
             return null;
         }
 
-        private String escapeCharacters(String string) {
-            string = string.replace("&", "&amp;");
-            string = string.replace("<", "&lt;");
-            string = string.replace(">", "&gt;");
-
-            return string;
-        }
-
-        private String[] extractReplaceLinks(Matcher aTag, StringBuffer sb) {
-            int size = 0;
-            List<String> links = new ArrayList<>();
-            while (aTag.find()) {
-                String firstGroup = aTag.group(1);
-                if (firstGroup != null) {
-                    Matcher url = href.matcher(firstGroup);
-                    if (url.find()) {
-                        String escapeThis = aTag.group(3);
-                        if (escapeThis != null) {
-                            aTag.appendReplacement(sb, String.format("{%s}", size++));
-                            links.add(escapeThis);
-                        } else {
-                            aTag.appendReplacement(sb, String.format("{%s}", size++));
-                            links.add(String.format("<%s|%s>", url.group(1).replaceAll("\"", ""), aTag.group(2)));
-                        }
-                    }
-                } else {
-                    String escapeThis = aTag.group(3);
-                    aTag.appendReplacement(sb, String.format("{%s}", size++));
-                    links.add(escapeThis);
-                }
-            }
-            aTag.appendTail(sb);
-            return links.toArray(new String[size]);
-        }
-
         public String escape(String string) {
-            StringBuffer pattern = new StringBuffer();
-            String[] links = extractReplaceLinks(aTag.matcher(string), pattern);
-            return MessageFormat.format(escapeCharacters(pattern.toString()), links);
+            return MessageEscaper.escape(string);
         }
 
         public String toString() {
             return message.toString();
         }
+
+        private static final class FailedTestClass {
+            private final String name;
+            private final List<String> methods = new ArrayList<>();
+            private int failures;
+
+            private FailedTestClass(String name) {
+                this.name = name;
+            }
+        }
     }
 }
@@ -0,0 +1,207 @@
+package jenkins.plugins.slack;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.AbstractBuild;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+
+/**
+ * What notifications need to know about the completed builds of a job: the last build that wasn't aborted, the last
+ * successful build and when the current run of unsuccessful builds started.
+ *
+ * The record is updated as builds complete and saved next to the job's config, so working out a build's status or
+ * how long it took to get back to normal doesn't walk back through the build history. It is seeded from the history
+ * once, when the first build of a job using the notifier completes, and again whenever builds completed without
+ * being recorded.
+ */
+public class BuildStreak {
+
+    private static final Logger logger = Logger.getLogger(BuildStreak.class.getName());
+
+    static final String FILE_NAME = "slack-build-streak.xml";
+
+    private static final Map<Job<?, ?>, BuildStreak> streaks = new WeakHashMap<>();
+
+    private int lastCompletedNumber;
+    private int lastNonAbortedNumber;
+    private String lastNonAbortedResult;
+    private int lastSuccessNumber;
+    private int streakStartNumber;
+    private long streakStartEndMillis;
+
+    /**
+     * @return the record of the builds that completed before this one, or null if there is none yet or the record
+     * doesn't end with the build just before this one, e.g. because a later build already completed or builds
+     * completed while the notifier wasn't tracking them
+     */
+    static BuildStreak before(Run<?, ?> build) {
+        Job<?, ?> job = build.getParent();
+        if (job == null) {
+            return null;
+        }
+        BuildStreak streak;
+        synchronized (streaks) {
+            streak = load(job);
+        }
+        return streak != null && streak.endsBefore(build) ? streak : null;
+    }
+
+    static void completed(Run<?, ?> build) {
+        Job<?, ?> job = build.getParent();
+        File rootDir = job.getRootDir();
+        if (rootDir == null || build.getResult() == null) {
+            return;
+        }
+        BuildStreak streak;
+        synchronized (streaks) {
+            streak = load(job);
+            if (streak == null || !streak.endsBefore(build)) {
+                streak = seed(build);
+                streaks.put(job, streak);
+            }
+        }
+        streak.record(build.getNumber(), build.getResult(), build.getStartTimeInMillis() + build.getDuration());
+        // the job may have been renamed since the record was loaded
+        streak.save(new XmlFile(new File(rootDir, FILE_NAME)));
+    }
+
+    private static BuildStreak load(Job<?, ?> job) {
+        BuildStreak streak = streaks.get(job);
+        if (streak != null) {
+            return streak;
+        }
+        File rootDir = job.getRootDir();
+        if (rootDir == null) {
+            return null;
+        }
+        XmlFile file = new XmlFile(new File(rootDir, FILE_NAME));
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            streak = (BuildStreak) file.read();
+        } catch (IOException | ClassCastException e) {
+            logger.log(Level.WARNING, "Failed to read " + file + ", the build history will be used instead", e);
+            return null;
+        }
+        streaks.put(job, streak);
+        return streak;
+    }
+
+    /**
+     * Works out the record from the builds before this one, the one time it walks back through the history.
+     */
+    private static BuildStreak seed(Run<?, ?> build) {
+        BuildStreak streak = new BuildStreak();
+        Run<?, ?> lastSuccess = build.getPreviousSuccessfulBuild();
+        if (lastSuccess != null) {
+            streak.record(lastSuccess);
+            Run<?, ?> next = lastSuccess.getNextBuild();
+            if (next != null && next.getNumber() < build.getNumber()) {
+                streak.record(next);
+            }
+        }
+        Run<?, ?> previous = build.getPreviousBuild();
+        while (previous != null && (previous.isBuilding() || previous.getResult() == Result.ABORTED)) {
+            previous = previous.getPreviousBuild();
+        }
+        if (previous != null) {
+            streak.record(previous);
+        }
+        return streak;
+    }
+
+    private void record(Run<?, ?> build) {
+        Result result = build.getResult();
+        if (result != null && !build.isBuilding()) {
+            record(build.getNumber(), result, build.getStartTimeInMillis() + build.getDuration());
+        }
+    }
+
+    synchronized void record(int number, Result result, long endMillis) {
+        lastCompletedNumber = Math.max(lastCompletedNumber, number);
+        if (result != Result.ABORTED && number > lastNonAbortedNumber) {
+            lastNonAbortedNumber = number;
+            lastNonAbortedResult = result.toString();
+        }
+        if (result == Result.SUCCESS) {
+            if (number > lastSuccessNumber) {
+                lastSuccessNumber = number;
+                if (streakStartNumber < number) {
+                    streakStartNumber = 0;
+                    streakStartEndMillis = 0;
+                }
+            }
+        } else if (number > lastSuccessNumber && (streakStartNumber == 0 || number < streakStartNumber)) {
+            streakStartNumber = number;
+            streakStartEndMillis = endMillis;
+        }
+    }
+
+    private synchronized void save(XmlFile file) {
+        try {
+            file.write(this);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to save " + file, e);
+        }
+    }
+
+    /**
+     * @return whether the last build recorded is the one just before this build, so no build in between was missed
+     */
+    boolean endsBefore(Run<?, ?> build) {
+        Run<?, ?> previous = build.getPreviousBuild();
+        int previousNumber = previous != null ? previous.getNumber() : 0;
+        synchronized (this) {
+            return previousNumber > 0 && lastCompletedNumber == previousNumber;
+        }
+    }
+
+    /**
+     * @return the number of the last completed build that wasn't aborted, 0 if there is none
+     */
+    synchronized int getLastNonAbortedNumber() {
+        return lastNonAbortedNumber;
+    }
+
+    /**
+     * @return the result of the last completed build that wasn't aborted, null if there is none
+     */
+    synchronized Result getLastNonAbortedResult() {
+        return lastNonAbortedResult != null ? Result.fromString(lastNonAbortedResult) : null;
+    }
+
+    synchronized boolean hasSucceeded() {
+        return lastSuccessNumber > 0;
+    }
+
+    /**
+     * @return when the first build after the last successful build ended, 0 if none completed since
+     */
+    synchronized long getStreakStartEndMillis() {
+        return streakStartEndMillis;
+    }
+
+    @Extension
+    @SuppressWarnings("rawtypes")
+    public static class Tracker extends RunListener<AbstractBuild> {
+
+        @Override
+        public void onCompleted(AbstractBuild build, @Nonnull TaskListener listener) {
+            if (build.getProject().getPublishersList().get(SlackNotifier.class) != null) {
+                completed(build);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package jenkins.plugins.slack;
+
+import hudson.scm.ChangeLogSet;
+import hudson.scm.ChangeLogSet.Entry;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * What notifications show of a build's changes, collected in a single pass over its change set: the authors and
+ * commits in the order they appear, up to configurable limits, and the number of changed files.
+ *
+ * Affected files are only counted, so large merges don't copy every file of the change set.
+ */
+public final class ChangeSetSummary {
+
+    public static final int DEFAULT_MAX_AUTHORS = 10;
+    public static final int DEFAULT_MAX_COMMITS = 20;
+    /**
+     * Authors left out of the list are counted by name up to this many, so the summary stays bounded on huge change
+     * sets. Beyond that the list only says there are at least this many more.
+     */
+    static final int MAX_COUNTED_AUTHORS = 1000;
+
+    private static volatile int maxAuthors = DEFAULT_MAX_AUTHORS;
+    private static volatile int maxCommits = DEFAULT_MAX_COMMITS;
+
+    private final Set<String> authors = new LinkedHashSet<>();
+    private final Set<String> commits = new LinkedHashSet<>();
+    private final Set<String> hiddenAuthors = new HashSet<>();
+    private boolean uncountedAuthors;
+    private int hiddenCommits;
+    private int entryCount;
+    private int fileCount;
+
+    private ChangeSetSummary() {
+    }
+
+    public static void configure(int maxAuthors, int maxCommits) {
+        ChangeSetSummary.maxAuthors = maxAuthors > 0 ? maxAuthors : DEFAULT_MAX_AUTHORS;
+        ChangeSetSummary.maxCommits = maxCommits > 0 ? maxCommits : DEFAULT_MAX_COMMITS;
+    }
+
+    /**
+     * @param commitInfoChoice what to show of each commit, or null if only authors and files are needed
+     */
+    static ChangeSetSummary of(ChangeLogSet<?> changeSet, CommitInfoChoice commitInfoChoice) {
+        return of(Collections.singletonList(changeSet), commitInfoChoice);
+    }
+
+    /**
+     * Summarizes the changes of several builds together, in the order of the change sets.
+     */
+    static ChangeSetSummary of(Iterable<? extends ChangeLogSet<?>> changeSets, CommitInfoChoice commitInfoChoice) {
+        int authorLimit = maxAuthors;
+        int commitLimit = maxCommits;
+        ChangeSetSummary summary = new ChangeSetSummary();
+        for (ChangeLogSet<?> changeSet : changeSets) {
+            for (Entry entry : changeSet) {
+                summary.add(entry, authorLimit, commitLimit, commitInfoChoice);
+            }
+        }
+        return summary;
+    }
+
+    private void add(Entry entry, int authorLimit, int commitLimit, CommitInfoChoice commitInfoChoice) {
+        entryCount++;
+        Collection<? extends ChangeLogSet.AffectedFile> files = entry.getAffectedFiles();
+        if (files != null) {
+            fileCount += files.size();
+        }
+        String author = entry.getAuthor().getDisplayName();
+        if (!authors.contains(author)) {
+            if (authors.size() < authorLimit) {
+                authors.add(author);
+            } else if (hiddenAuthors.size() < MAX_COUNTED_AUTHORS) {
+                hiddenAuthors.add(author);
+            } else if (!hiddenAuthors.contains(author)) {
+                uncountedAuthors = true;
+            }
+        }
+        if (commitInfoChoice != null) {
+            if (commits.size() < commitLimit) {
+                commits.add(formatCommit(entry, author, commitInfoChoice));
+            } else {
+                hiddenCommits++;
+            }
+        }
+    }
+
+    private static String formatCommit(Entry entry, String author, CommitInfoChoice commitInfoChoice) {
+        StringBuilder commit = new StringBuilder();
+        if (commitInfoChoice.showTitle()) {
+            commit.append(entry.getMsg());
+        }
+        if (commitInfoChoice.showAuthor()) {
+            commit.append(" [").append(author).append("]");
+        }
+        return commit.toString();
+    }
+
+    public boolean isEmpty() {
+        return entryCount == 0;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return the number of files affected by the changes, a file changed by several commits counts once per commit
+     */
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * @return the authors in the order of their first change, ending with "+N more" when some were left out, or
+     * "+N or more" when there were too many to count
+     */
+    public String getAuthorList() {
+        return join(authors, ", ", hiddenAuthors.size(), uncountedAuthors ? " or more" : " more");
+    }
+
+    /**
+     * @return one commit per line, ending with "+N more" when some were left out
+     */
+    public String getCommitList() {
+        return join(commits, "\n- ", hiddenCommits, " more");
+    }
+
+    private static String join(Set<String> items, String separator, int hidden, String more) {
+        StringBuilder joined = new StringBuilder();
+        for (String item : items) {
+            if (joined.length() > 0) {
+                joined.append(separator);
+            }
+            joined.append(item);
+        }
+        if (hidden > 0) {
+            joined.append(separator).append("+").append(hidden).append(more);
+        }
+        return joined.toString();
+    }
+}
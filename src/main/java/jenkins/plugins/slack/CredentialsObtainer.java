@@ -3,24 +3,66 @@ package jenkins.plugins.slack;
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import hudson.Extension;
+import hudson.XmlFile;
 import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
 import hudson.security.ACL;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 
 public class CredentialsObtainer {
 
+    /**
+     * Credentials providers that don't store their credentials in Jenkins don't trigger a save, so cached lookups
+     * expire after this long regardless.
+     */
+    static final long CACHE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    static final int MAX_ENTRIES = 256;
+
+    private static final Map<String, CachedCredentials> cache = new LinkedHashMap<String, CachedCredentials>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCredentials> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
     public static StringCredentials lookupCredentials(String credentialId) {
-        List<StringCredentials> credentials = CredentialsProvider.lookupCredentials(StringCredentials.class, Jenkins.get(), ACL.SYSTEM, Collections.emptyList());
-        return getCredentialWithId(credentialId, credentials);
+        return lookupCredentials(credentialId, null);
     }
 
     public static StringCredentials lookupCredentials(String credentialId, Item item) {
-        List<StringCredentials> credentials = CredentialsProvider.lookupCredentials(StringCredentials.class, item, ACL.SYSTEM, Collections.emptyList());
-        return getCredentialWithId(credentialId, credentials);
+        String key = (item != null ? item.getFullName() : "") + '\0' + credentialId;
+        CachedCredentials cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && System.nanoTime() - cached.loaded < CACHE_TTL_NANOS) {
+            return cached.credentials;
+        }
+        List<StringCredentials> credentials = item != null
+                ? CredentialsProvider.lookupCredentials(StringCredentials.class, item, ACL.SYSTEM, Collections.emptyList())
+                : CredentialsProvider.lookupCredentials(StringCredentials.class, Jenkins.get(), ACL.SYSTEM, Collections.emptyList());
+        StringCredentials found = getCredentialWithId(credentialId, credentials);
+        // a missing credential isn't cached, so it is picked up as soon as it is added
+        synchronized (cache) {
+            if (found != null) {
+                cache.put(key, new CachedCredentials(found));
+            } else {
+                cache.remove(key);
+            }
+        }
+        return found;
     }
 
     /**
@@ -48,8 +90,59 @@ public class CredentialsObtainer {
         return response;
     }
 
+    static void invalidateCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    static int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
     private static StringCredentials getCredentialWithId(String credentialId, List<StringCredentials> credentials) {
         CredentialsMatcher matcher = CredentialsMatchers.withId(credentialId);
         return CredentialsMatchers.firstOrNull(credentials, matcher);
     }
+
+    private static final class CachedCredentials {
+        private final StringCredentials credentials;
+        private final long loaded = System.nanoTime();
+
+        private CachedCredentials(StringCredentials credentials) {
+            this.credentials = credentials;
+        }
+    }
+
+    /**
+     * Drops cached lookups when system or folder credentials are saved.
+     */
+    @Extension
+    public static class CredentialsSaveListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            // folder credentials are saved with the folder
+            if (o instanceof SystemCredentialsProvider || o instanceof ItemGroup) {
+                invalidateCache();
+            }
+        }
+    }
+
+    /**
+     * Drops cached lookups when items move, as lookups are keyed by full name and the available credentials change.
+     */
+    @Extension
+    public static class ItemMoveListener extends ItemListener {
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            invalidateCache();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            invalidateCache();
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package jenkins.plugins.slack;
+
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import hudson.tasks.junit.TestResultAction;
+import hudson.tasks.test.TestResult;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact record of the tests that failed in a build: the fail count, the number of distinct failed test ids and a
+ * hash over their sorted hashes.
+ *
+ * It is attached to a build when that build is notified about and saved with it, so comparing a later build with it
+ * doesn't need to load its test report again. It stays a few fields long however many tests failed.
+ */
+public class FailedTestsFingerprint extends InvisibleAction {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int failCount;
+    private final int failedIdCount;
+    private final long failedIdsHash;
+
+    FailedTestsFingerprint(int failCount, int failedIdCount, long failedIdsHash) {
+        this.failCount = failCount;
+        this.failedIdCount = failedIdCount;
+        this.failedIdsHash = failedIdsHash;
+    }
+
+    /**
+     * @return the fingerprint attached to the build, or one computed from its test report without changing the build,
+     * or null if the build has no test report
+     */
+    static FailedTestsFingerprint of(Run<?, ?> build) {
+        FailedTestsFingerprint fingerprint = build.getAction(FailedTestsFingerprint.class);
+        if (fingerprint == null) {
+            TestResultAction action = build.getAction(TestResultAction.class);
+            if (action == null) {
+                return null;
+            }
+            fingerprint = create(action.getFailCount(), action.getFailedTests());
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Like {@link #of(Run)}, but attaches a computed fingerprint to the build. Only meant for the build being notified
+     * about, which Jenkins saves when it completes.
+     */
+    static FailedTestsFingerprint attachTo(Run<?, ?> build) {
+        FailedTestsFingerprint fingerprint = of(build);
+        if (fingerprint != null && build.getAction(FailedTestsFingerprint.class) == null) {
+            build.addAction(fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static FailedTestsFingerprint create(int failCount, List<? extends TestResult> failedTests) {
+        long[] hashes = new long[failedTests.size()];
+        int i = 0;
+        for (TestResult result : failedTests) {
+            hashes[i++] = hash(result.getId());
+        }
+        Arrays.sort(hashes);
+        int distinct = 0;
+        long combined = FNV_OFFSET_BASIS;
+        for (int j = 0; j < hashes.length; j++) {
+            if (j == 0 || hashes[j - 1] != hashes[j]) {
+                distinct++;
+                combined = (combined ^ hashes[j]) * FNV_PRIME;
+            }
+        }
+        return new FailedTestsFingerprint(failCount, distinct, combined);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-16 code units of the id.
+     */
+    static long hash(String id) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public int getFailCount() {
+        return failCount;
+    }
+
+    /**
+     * @return whether both builds had failures in the same set of tests
+     */
+    public boolean hasSameFailuresAs(FailedTestsFingerprint other) {
+        return failedIdCount == other.failedIdCount && failedIdsHash == other.failedIdsHash;
+    }
+}
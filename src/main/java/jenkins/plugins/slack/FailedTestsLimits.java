@@ -0,0 +1,57 @@
+package jenkins.plugins.slack;
+
+/**
+ * Bounds how much of a notification the list of failed tests may take, so builds with thousands of failures
+ * still produce a message Slack accepts. Set from the global configuration.
+ */
+public final class FailedTestsLimits {
+
+    public static final int DEFAULT_MAX_TESTS = 50;
+    public static final int DEFAULT_MAX_LENGTH = 4000;
+
+    private static volatile FailedTestsLimits current =
+            new FailedTestsLimits(DEFAULT_MAX_TESTS, DEFAULT_MAX_LENGTH, false);
+
+    private final int maxTests;
+    private final int maxLength;
+    private final boolean groupByClass;
+
+    private FailedTestsLimits(int maxTests, int maxLength, boolean groupByClass) {
+        this.maxTests = maxTests;
+        this.maxLength = maxLength;
+        this.groupByClass = groupByClass;
+    }
+
+    public static void configure(int maxTests, int maxLength, boolean groupByClass) {
+        current = new FailedTestsLimits(
+                maxTests > 0 ? maxTests : DEFAULT_MAX_TESTS,
+                maxLength > 0 ? maxLength : DEFAULT_MAX_LENGTH,
+                groupByClass
+        );
+    }
+
+    static FailedTestsLimits get() {
+        return current;
+    }
+
+    /**
+     * @return how many failed tests are listed by name at most
+     */
+    public int getMaxTests() {
+        return maxTests;
+    }
+
+    /**
+     * @return how many characters the listed failed tests may take at most
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @return whether failed tests are listed as one line per test class rather than one line per test
+     */
+    public boolean isGroupByClass() {
+        return groupByClass;
+    }
+}
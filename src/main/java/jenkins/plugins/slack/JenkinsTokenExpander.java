@@ -18,7 +18,17 @@ public class JenkinsTokenExpander implements TokenExpander {
 
     @Override
     public String expand(String template, AbstractBuild<?, ?> build) {
+        if (template == null || template.isEmpty()) {
+            return template;
+        }
+        MessageTemplate parsed = MessageTemplate.of(template);
+        if (parsed.isPlain()) {
+            return template;
+        }
         try {
+            if (parsed.isOnlyTokenMacros()) {
+                return TokenMacro.expand(build, listener, template, false, null);
+            }
             return TokenMacro.expandAll(build, listener, template, false, null);
         } catch (MacroEvaluationException | IOException | InterruptedException e) {
             logger.log(Level.SEVERE, "Failed to process custom message", e);
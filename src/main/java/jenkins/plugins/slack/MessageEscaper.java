@@ -0,0 +1,164 @@
+package jenkins.plugins.slack;
+
+/**
+ * Escapes text for Slack's message formatting in a single pass.
+ *
+ * {@code &}, {@code <} and {@code >} are escaped, and HTML links such as {@code <a href="url">text</a>} are turned
+ * into Slack links, {@code <url|text>}. Link text is copied as is. Double quotes around the url are dropped,
+ * single quotes are kept.
+ */
+public final class MessageEscaper {
+
+    private MessageEscaper() {
+    }
+
+    public static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        escape(text, escaped);
+        return escaped.toString();
+    }
+
+    /**
+     * Appends the escaped text to {@code out}.
+     */
+    public static void escape(String text, StringBuilder out) {
+        int length = text.length();
+        int copied = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                int linkEnd = appendLink(text, i, out, copied);
+                if (linkEnd > 0) {
+                    i = linkEnd;
+                    copied = linkEnd;
+                    continue;
+                }
+            }
+            if (c == '&' || c == '<' || c == '>') {
+                out.append(text, copied, i);
+                out.append(c == '&' ? "&amp;" : c == '<' ? "&lt;" : "&gt;");
+                copied = i + 1;
+            }
+            i++;
+        }
+        out.append(text, copied, length);
+    }
+
+    /**
+     * Handles an anchor starting at {@code start}. Anchors without a href are escaped as plain text.
+     *
+     * @return the index after the closing tag, or -1 if there's no complete anchor at {@code start}
+     */
+    private static int appendLink(String text, int start, StringBuilder out, int copied) {
+        int length = text.length();
+        if (start + 2 >= length || Character.toLowerCase(text.charAt(start + 1)) != 'a' || text.charAt(start + 2) == '>') {
+            return -1;
+        }
+        int tagEnd = text.indexOf('>', start + 2);
+        if (tagEnd < 0) {
+            return -1;
+        }
+        int closeStart = findClosingTag(text, tagEnd + 2);
+        if (closeStart < 0) {
+            return -1;
+        }
+        int end = closeStart + 4;
+
+        out.append(text, copied, start);
+        String url = findHref(text, start + 2, tagEnd);
+        if (url == null) {
+            escapePlain(text, start, end, out);
+        } else {
+            out.append('<');
+            for (int i = 0; i < url.length(); i++) {
+                char c = url.charAt(i);
+                if (c != '"') {
+                    out.append(c);
+                }
+            }
+            out.append('|').append(text, tagEnd + 1, closeStart).append('>');
+        }
+        return end;
+    }
+
+    /**
+     * Finds the first {@code </a>} at or after {@code from}, as long as the link text doesn't span lines.
+     */
+    private static int findClosingTag(String text, int from) {
+        int length = text.length();
+        for (int i = from - 1; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -1;
+            }
+            if (i >= from && c == '<' && i + 3 < length && text.charAt(i + 1) == '/'
+                    && Character.toLowerCase(text.charAt(i + 2)) == 'a' && text.charAt(i + 3) == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the value of the first well formed href attribute in the tag, including any quotes
+     */
+    private static String findHref(String text, int from, int to) {
+        for (int i = from; i + 4 <= to; i++) {
+            if (!text.regionMatches(true, i, "href", 0, 4)) {
+                continue;
+            }
+            int j = skipWhitespace(text, i + 4, to);
+            if (j >= to || text.charAt(j) != '=') {
+                continue;
+            }
+            j = skipWhitespace(text, j + 1, to);
+            if (j >= to) {
+                continue;
+            }
+            char quote = text.charAt(j);
+            if (quote == '"' || quote == '\'') {
+                int close = text.indexOf(quote, j + 1);
+                if (close >= 0 && close < to) {
+                    return text.substring(j, close + 1);
+                }
+                continue;
+            }
+            int k = j;
+            while (k < to && !isWhitespace(text.charAt(k)) && text.charAt(k) != '"' && text.charAt(k) != '\'') {
+                k++;
+            }
+            if (k > j) {
+                return text.substring(j, k);
+            }
+        }
+        return null;
+    }
+
+    private static int skipWhitespace(String text, int from, int to) {
+        int i = from;
+        while (i < to && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static void escapePlain(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '&') {
+                out.append("&amp;");
+            } else if (c == '<') {
+                out.append("&lt;");
+            } else if (c == '>') {
+                out.append("&gt;");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
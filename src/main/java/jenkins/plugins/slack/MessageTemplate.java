@@ -0,0 +1,101 @@
+package jenkins.plugins.slack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jenkinsci.plugins.tokenmacro.TokenMacro;
+
+/**
+ * What a custom message template needs to be expanded: whether it has any tokens at all, which macros it names and
+ * whether each of them is provided by a {@link TokenMacro}.
+ *
+ * Templates are parsed once and kept in a bounded cache keyed by their text, so plain text messages are sent as they
+ * are and messages naming only token macros skip resolving the build environment.
+ */
+final class MessageTemplate {
+
+    static final int MAX_ENTRIES = 256;
+
+    private static final Pattern TOKEN = Pattern.compile("\\$\\{?(\\w+)");
+
+    private static final Map<String, MessageTemplate> templates = new LinkedHashMap<String, MessageTemplate>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MessageTemplate> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final boolean plain;
+    private final List<String> macroNames;
+    private final boolean onlyTokenMacros;
+
+    private MessageTemplate(boolean plain, List<String> macroNames, boolean onlyTokenMacros) {
+        this.plain = plain;
+        this.macroNames = macroNames;
+        this.onlyTokenMacros = onlyTokenMacros;
+    }
+
+    static MessageTemplate of(String text) {
+        synchronized (templates) {
+            MessageTemplate template = templates.get(text);
+            if (template == null) {
+                template = parse(text, MessageTemplate::isTokenMacro);
+                templates.put(text, template);
+            }
+            return template;
+        }
+    }
+
+    static MessageTemplate parse(String text, Predicate<String> isTokenMacro) {
+        if (text.indexOf('$') < 0) {
+            return new MessageTemplate(true, Collections.emptyList(), true);
+        }
+        List<String> macroNames = new ArrayList<>();
+        // "$$" escapes a dollar sign, which only the full expansion understands
+        boolean onlyTokenMacros = !text.contains("$$");
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            if (!macroNames.contains(name)) {
+                macroNames.add(name);
+                onlyTokenMacros &= isTokenMacro.test(name);
+            }
+        }
+        return new MessageTemplate(false, Collections.unmodifiableList(macroNames), onlyTokenMacros);
+    }
+
+    private static boolean isTokenMacro(String name) {
+        for (TokenMacro macro : TokenMacro.all()) {
+            if (macro.acceptsMacroName(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the template has no tokens and is sent as it is
+     */
+    boolean isPlain() {
+        return plain;
+    }
+
+    /**
+     * @return the names of the macros in the template, in the order they first appear
+     */
+    List<String> getMacroNames() {
+        return macroNames;
+    }
+
+    /**
+     * @return whether every macro in the template is a token macro, so environment variables need not be expanded
+     */
+    boolean isOnlyTokenMacros() {
+        return onlyTokenMacros;
+    }
+}
@@ -19,7 +19,10 @@ import hudson.tasks.Notifier;
 import hudson.tasks.Publisher;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,6 +30,14 @@ import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import jenkins.model.Jenkins;
 import jenkins.plugins.slack.config.GlobalCredentialMigrator;
+import jenkins.plugins.slack.decisions.NotificationTable;
+import jenkins.plugins.slack.dispatch.AsyncSlackService;
+import jenkins.plugins.slack.dispatch.ChannelDigest;
+import jenkins.plugins.slack.dispatch.CoalescingSlackService;
+import jenkins.plugins.slack.dispatch.DispatchOverflowPolicy;
+import jenkins.plugins.slack.dispatch.NotificationDispatcher;
+import jenkins.plugins.slack.http.HttpClientPool;
+import jenkins.plugins.slack.http.RoomFanOut;
 import jenkins.plugins.slack.logging.BuildAwareLogger;
 import jenkins.plugins.slack.logging.BuildKey;
 import jenkins.plugins.slack.logging.SlackNotificationsLogger;
@@ -78,6 +89,10 @@ public class SlackNotifier extends Notifier {
     private String customMessageNotBuilt;
     private String customMessageUnstable;
     private String customMessageFailure;
+    private boolean channelDigest;
+
+    private transient Map<AbstractBuild, SlackService> servicesByBuild;
+    private transient volatile NotificationTable notificationTable;
 
     /** @deprecated use {@link #tokenCredentialId} */
     @SuppressWarnings("DeprecatedIsStillUsed")
@@ -199,6 +214,18 @@ public class SlackNotifier extends Notifier {
         return notifyBackToNormal;
     }
 
+    /**
+     * @return the notification conditions compiled from the notify preferences, rebuilt after they change
+     */
+    public NotificationTable getNotificationTable() {
+        NotificationTable table = notificationTable;
+        if (table == null) {
+            table = NotificationTable.compile(this);
+            notificationTable = table;
+        }
+        return table;
+    }
+
     public boolean getIncludeTestSummary() {
         return includeTestSummary;
     }
@@ -215,6 +242,10 @@ public class SlackNotifier extends Notifier {
         return includeCustomMessage;
     }
 
+    public boolean getChannelDigest() {
+        return channelDigest;
+    }
+
     public String getCustomMessage() {
         return customMessage;
     }
@@ -252,6 +283,7 @@ public class SlackNotifier extends Notifier {
     @DataBoundSetter
     public void setNotifySuccess(boolean notifySuccess) {
         this.notifySuccess = notifySuccess;
+        notificationTable = null;
     }
 
     @DataBoundSetter
@@ -267,21 +299,25 @@ public class SlackNotifier extends Notifier {
     @DataBoundSetter
     public void setNotifyAborted(boolean notifyAborted) {
         this.notifyAborted = notifyAborted;
+        notificationTable = null;
     }
 
     @DataBoundSetter
     public void setNotifyFailure(boolean notifyFailure) {
         this.notifyFailure = notifyFailure;
+        notificationTable = null;
     }
 
     @DataBoundSetter
     public void setNotifyNotBuilt(boolean notifyNotBuilt) {
         this.notifyNotBuilt = notifyNotBuilt;
+        notificationTable = null;
     }
 
     @DataBoundSetter
     public void setNotifyUnstable(boolean notifyUnstable) {
         this.notifyUnstable = notifyUnstable;
+        notificationTable = null;
     }
 
     @DataBoundSetter
@@ -292,6 +328,7 @@ public class SlackNotifier extends Notifier {
     @DataBoundSetter
     public void setNotifyBackToNormal(boolean notifyBackToNormal) {
         this.notifyBackToNormal = notifyBackToNormal;
+        notificationTable = null;
     }
 
     @DataBoundSetter
@@ -307,6 +344,7 @@ public class SlackNotifier extends Notifier {
     @DataBoundSetter
     public void setNotifyRepeatedFailure(boolean notifyRepeatedFailure) {
         this.notifyRepeatedFailure = notifyRepeatedFailure;
+        notificationTable = null;
     }
 
     @DataBoundSetter
@@ -314,6 +352,11 @@ public class SlackNotifier extends Notifier {
         this.includeCustomMessage = includeCustomMessage;
     }
 
+    @DataBoundSetter
+    public void setChannelDigest(boolean channelDigest) {
+        this.channelDigest = channelDigest;
+    }
+
     @DataBoundSetter
     public void setCustomMessage(String customMessage) {
         this.customMessage = customMessage;
@@ -438,7 +481,34 @@ public class SlackNotifier extends Notifier {
         return BuildStepMonitor.NONE;
     }
 
+    /**
+     * @return the service for the build, resolved once per build and shared with other builds using the same
+     * configuration
+     */
     public SlackService newSlackService(AbstractBuild abstractBuild, BuildListener listener) {
+        synchronized (this) {
+            if (servicesByBuild == null) {
+                servicesByBuild = new WeakHashMap<>();
+            }
+            SlackService service = servicesByBuild.get(abstractBuild);
+            if (service != null) {
+                return service;
+            }
+        }
+        SlackService service = resolveSlackService(abstractBuild, listener);
+        synchronized (this) {
+            servicesByBuild.put(abstractBuild, service);
+        }
+        return service;
+    }
+
+    private synchronized void forgetSlackService(AbstractBuild build) {
+        if (servicesByBuild != null) {
+            servicesByBuild.remove(build);
+        }
+    }
+
+    private SlackService resolveSlackService(AbstractBuild abstractBuild, BuildListener listener) {
         DescriptorImpl descriptor = getDescriptor();
         String teamDomain = Util.fixEmpty(this.teamDomain) != null ? this.teamDomain : descriptor.getTeamDomain();
         String baseUrl = Util.fixEmpty(this.baseUrl) != null ? this.baseUrl : descriptor.getBaseUrl();
@@ -461,7 +531,7 @@ public class SlackNotifier extends Notifier {
         authTokenCredentialId = env.expand(authTokenCredentialId);
         room = env.expand(room);
         final String populatedToken = CredentialsObtainer.getTokenToUse(authTokenCredentialId, abstractBuild.getParent(), authToken);
-        return new StandardSlackService(baseUrl, teamDomain, botUser, room, false, populatedToken);
+        return SlackServiceCache.get(baseUrl, teamDomain, botUser, room, populatedToken, descriptor.isDurableOutbox());
     }
 
     @Override
@@ -475,11 +545,15 @@ public class SlackNotifier extends Notifier {
         BuildAwareLogger log = createLogger(listener);
         log.debug(buildKey, "Performing complete notifications");
         JenkinsTokenExpander tokenExpander = new JenkinsTokenExpander(listener);
+        // build steps may have contributed environment variables since the start notification
+        forgetSlackService(build);
         try {
-            new ActiveNotifier(this, slackFactory(listener), log, tokenExpander).completed(build);
+            // one notifier for both, so the previous build is only looked up once
+            ActiveNotifier activeNotifier = new ActiveNotifier(this, slackFactory(listener), log, tokenExpander);
+            activeNotifier.completed(build);
             if (notifyRegression) {
                 log.debug(buildKey, "Performing finalize notifications");
-                new ActiveNotifier(this, slackFactory(listener), log, tokenExpander).finalized(build);
+                activeNotifier.finalized(build);
             }
         } catch (Exception e) {
             log.info(buildKey,"Exception attempting Slack notification: " + e.getMessage());
@@ -503,9 +577,41 @@ public class SlackNotifier extends Notifier {
     }
 
     private Function<AbstractBuild<?, ?>, SlackService> slackFactory(BuildListener listener) {
+        DescriptorImpl descriptor = getDescriptor();
+        int coalesceWindowSeconds = descriptor.getCoalesceWindowSeconds();
+        boolean async = descriptor.isAsyncDispatch();
+        if (coalesceWindowSeconds > 0) {
+            long windowMillis = TimeUnit.SECONDS.toMillis(coalesceWindowSeconds);
+            return b -> {
+                SlackService service = newSlackService(b, listener);
+                String key = coalesceKey(b, service);
+                return new CoalescingSlackService(async ? new AsyncSlackService(service) : service, key, windowMillis);
+            };
+        }
+        if (async) {
+            return b -> new AsyncSlackService(newSlackService(b, listener));
+        }
         return b -> newSlackService(b, listener);
     }
 
+    /**
+     * Notifications are merged per job, matrix configurations count as their parent, and per resolved workspace and
+     * channels.
+     */
+    private static String coalesceKey(AbstractBuild<?, ?> build, SlackService service) {
+        return build.getProject().getRootProject().getFullName() + "#" + destinationKey(service);
+    }
+
+    /**
+     * @return identifies where the service posts to, from its configuration with the build's variables expanded
+     */
+    static String destinationKey(SlackService service) {
+        if (service instanceof StandardSlackService) {
+            return ((StandardSlackService) service).getDestinationKey();
+        }
+        return service.getClass().getName() + "@" + System.identityHashCode(service);
+    }
+
     private static BuildAwareLogger createLogger(BuildListener listener) {
         return new SlackNotificationsLogger(logger, listener.getLogger());
     }
@@ -525,9 +631,29 @@ public class SlackNotifier extends Notifier {
         private boolean botUser;
         private String room;
         private String sendAs;
+        private int httpMaxConnections;
+        private int httpMaxConnectionsPerRoute;
+        private int httpIdleTimeoutSeconds;
+        private boolean parallelRoomFanOut;
+        private boolean asyncDispatch;
+        private boolean durableOutbox;
+        private int coalesceWindowSeconds;
+        private int digestIntervalSeconds;
+        private int digestMaxBuilds;
+        private int dispatchWorkers;
+        private int dispatchQueueCapacity;
+        private DispatchOverflowPolicy dispatchOverflowPolicy;
+        private int failedTestsMaxCount;
+        private int failedTestsMaxLength;
+        private boolean groupFailedTestsByClass;
+        private int changesMaxAuthors;
+        private int changesMaxCommits;
 
         public DescriptorImpl() {
             load();
+            applyHttpClientSettings();
+            applyDispatchSettings();
+            applyMessageSettings();
         }
 
         public String getBaseUrl() {
@@ -610,6 +736,177 @@ public class SlackNotifier extends Notifier {
             this.sendAs = sendAs;
         }
 
+        public int getHttpMaxConnections() {
+            return httpMaxConnections > 0 ? httpMaxConnections : HttpClientPool.DEFAULT_MAX_CONNECTIONS;
+        }
+
+        @DataBoundSetter
+        public void setHttpMaxConnections(int httpMaxConnections) {
+            this.httpMaxConnections = httpMaxConnections;
+        }
+
+        public int getHttpMaxConnectionsPerRoute() {
+            return httpMaxConnectionsPerRoute > 0 ? httpMaxConnectionsPerRoute : HttpClientPool.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        }
+
+        @DataBoundSetter
+        public void setHttpMaxConnectionsPerRoute(int httpMaxConnectionsPerRoute) {
+            this.httpMaxConnectionsPerRoute = httpMaxConnectionsPerRoute;
+        }
+
+        public int getHttpIdleTimeoutSeconds() {
+            return httpIdleTimeoutSeconds > 0 ? httpIdleTimeoutSeconds : HttpClientPool.DEFAULT_IDLE_TIMEOUT_SECONDS;
+        }
+
+        @DataBoundSetter
+        public void setHttpIdleTimeoutSeconds(int httpIdleTimeoutSeconds) {
+            this.httpIdleTimeoutSeconds = httpIdleTimeoutSeconds;
+        }
+
+        public boolean isParallelRoomFanOut() {
+            return parallelRoomFanOut;
+        }
+
+        @DataBoundSetter
+        public void setParallelRoomFanOut(boolean parallelRoomFanOut) {
+            this.parallelRoomFanOut = parallelRoomFanOut;
+        }
+
+        private void applyHttpClientSettings() {
+            HttpClientPool.configure(getHttpMaxConnections(), getHttpMaxConnectionsPerRoute(), getHttpIdleTimeoutSeconds());
+            RoomFanOut.configure(parallelRoomFanOut);
+        }
+
+        public boolean isAsyncDispatch() {
+            return asyncDispatch;
+        }
+
+        @DataBoundSetter
+        public void setAsyncDispatch(boolean asyncDispatch) {
+            this.asyncDispatch = asyncDispatch;
+        }
+
+        public boolean isDurableOutbox() {
+            return durableOutbox;
+        }
+
+        @DataBoundSetter
+        public void setDurableOutbox(boolean durableOutbox) {
+            this.durableOutbox = durableOutbox;
+        }
+
+        /**
+         * @return seconds to wait for further notifications from the same job before posting, 0 when disabled
+         */
+        public int getCoalesceWindowSeconds() {
+            return Math.max(coalesceWindowSeconds, 0);
+        }
+
+        @DataBoundSetter
+        public void setCoalesceWindowSeconds(int coalesceWindowSeconds) {
+            this.coalesceWindowSeconds = coalesceWindowSeconds;
+        }
+
+        public int getDigestIntervalSeconds() {
+            return digestIntervalSeconds > 0 ? digestIntervalSeconds : ChannelDigest.DEFAULT_INTERVAL_SECONDS;
+        }
+
+        @DataBoundSetter
+        public void setDigestIntervalSeconds(int digestIntervalSeconds) {
+            this.digestIntervalSeconds = digestIntervalSeconds;
+        }
+
+        public int getDigestMaxBuilds() {
+            return digestMaxBuilds > 0 ? digestMaxBuilds : ChannelDigest.DEFAULT_MAX_BUILDS;
+        }
+
+        @DataBoundSetter
+        public void setDigestMaxBuilds(int digestMaxBuilds) {
+            this.digestMaxBuilds = digestMaxBuilds;
+        }
+
+        public int getDispatchWorkers() {
+            return dispatchWorkers > 0 ? dispatchWorkers : NotificationDispatcher.DEFAULT_WORKERS;
+        }
+
+        @DataBoundSetter
+        public void setDispatchWorkers(int dispatchWorkers) {
+            this.dispatchWorkers = dispatchWorkers;
+        }
+
+        public int getDispatchQueueCapacity() {
+            return dispatchQueueCapacity > 0 ? dispatchQueueCapacity : NotificationDispatcher.DEFAULT_CAPACITY;
+        }
+
+        @DataBoundSetter
+        public void setDispatchQueueCapacity(int dispatchQueueCapacity) {
+            this.dispatchQueueCapacity = dispatchQueueCapacity;
+        }
+
+        public DispatchOverflowPolicy getDispatchOverflowPolicy() {
+            return dispatchOverflowPolicy != null ? dispatchOverflowPolicy : DispatchOverflowPolicy.BLOCK;
+        }
+
+        @DataBoundSetter
+        public void setDispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+            this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+        }
+
+        private void applyDispatchSettings() {
+            NotificationDispatcher.configure(getDispatchWorkers(), getDispatchQueueCapacity(), getDispatchOverflowPolicy());
+            ChannelDigest.configure(getDigestIntervalSeconds(), getDigestMaxBuilds());
+        }
+
+        public int getFailedTestsMaxCount() {
+            return failedTestsMaxCount > 0 ? failedTestsMaxCount : FailedTestsLimits.DEFAULT_MAX_TESTS;
+        }
+
+        @DataBoundSetter
+        public void setFailedTestsMaxCount(int failedTestsMaxCount) {
+            this.failedTestsMaxCount = failedTestsMaxCount;
+        }
+
+        public int getFailedTestsMaxLength() {
+            return failedTestsMaxLength > 0 ? failedTestsMaxLength : FailedTestsLimits.DEFAULT_MAX_LENGTH;
+        }
+
+        @DataBoundSetter
+        public void setFailedTestsMaxLength(int failedTestsMaxLength) {
+            this.failedTestsMaxLength = failedTestsMaxLength;
+        }
+
+        public boolean isGroupFailedTestsByClass() {
+            return groupFailedTestsByClass;
+        }
+
+        @DataBoundSetter
+        public void setGroupFailedTestsByClass(boolean groupFailedTestsByClass) {
+            this.groupFailedTestsByClass = groupFailedTestsByClass;
+        }
+
+        public int getChangesMaxAuthors() {
+            return changesMaxAuthors > 0 ? changesMaxAuthors : ChangeSetSummary.DEFAULT_MAX_AUTHORS;
+        }
+
+        @DataBoundSetter
+        public void setChangesMaxAuthors(int changesMaxAuthors) {
+            this.changesMaxAuthors = changesMaxAuthors;
+        }
+
+        public int getChangesMaxCommits() {
+            return changesMaxCommits > 0 ? changesMaxCommits : ChangeSetSummary.DEFAULT_MAX_COMMITS;
+        }
+
+        @DataBoundSetter
+        public void setChangesMaxCommits(int changesMaxCommits) {
+            this.changesMaxCommits = changesMaxCommits;
+        }
+
+        private void applyMessageSettings() {
+            FailedTestsLimits.configure(getFailedTestsMaxCount(), getFailedTestsMaxLength(), groupFailedTestsByClass);
+            ChangeSetSummary.configure(getChangesMaxAuthors(), getChangesMaxCommits());
+        }
+
         public ListBoxModel doFillCommitInfoChoiceItems() {
             ListBoxModel model = new ListBoxModel();
 
@@ -646,6 +943,9 @@ public class SlackNotifier extends Notifier {
         @Override
         public boolean configure(StaplerRequest req, JSONObject formData) {
             req.bindJSON(this, formData);
+            applyHttpClientSettings();
+            applyDispatchSettings();
+            applyMessageSettings();
             save();
             return true;
         }
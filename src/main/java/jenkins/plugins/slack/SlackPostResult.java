@@ -0,0 +1,126 @@
+package jenkins.plugins.slack;
+
+import java.util.Collections;
+import java.util.List;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Outcome of posting a message to a single room, safe to hand out when the {@link SlackService} is shared.
+ */
+public final class SlackPostResult {
+
+    public enum Status {
+        DELIVERED,
+        /** Slack refused the message, sending it again won't help */
+        REJECTED,
+        /** Slack couldn't be reached, was failing or rate limited us for too long */
+        UNAVAILABLE
+    }
+
+    private final String room;
+    private final Status status;
+    private final int statusCode;
+    private final long latencyMillis;
+    private final String channelId;
+    private final String ts;
+    private final String error;
+    private final String responseBody;
+
+    private SlackPostResult(String room, Status status, int statusCode, long latencyMillis, String channelId,
+                            String ts, String error, String responseBody) {
+        this.room = room;
+        this.status = status;
+        this.statusCode = statusCode;
+        this.latencyMillis = latencyMillis;
+        this.channelId = channelId;
+        this.ts = ts;
+        this.error = error;
+        this.responseBody = responseBody;
+    }
+
+    /**
+     * @param responseBody the response of the Web API, channel, ts and error are read from it; null for webhooks
+     */
+    public static SlackPostResult delivered(String room, int statusCode, long latencyMillis, String responseBody) {
+        String channelId = null;
+        String ts = null;
+        String error = null;
+        if (StringUtils.isNotEmpty(responseBody)) {
+            try {
+                JSONObject response = JSONObject.fromObject(responseBody);
+                channelId = response.optString("channel", null);
+                ts = response.optString("ts", null);
+                error = response.optString("error", null);
+            } catch (JSONException e) {
+                error = "Unreadable response";
+            }
+        }
+        return new SlackPostResult(room, Status.DELIVERED, statusCode, latencyMillis, channelId, ts, error, responseBody);
+    }
+
+    /**
+     * @param statusCode the last HTTP status received, 0 if there was none
+     */
+    public static SlackPostResult failed(String room, Status status, int statusCode, long latencyMillis, String error) {
+        return new SlackPostResult(room, status, statusCode, latencyMillis, null, null, error, null);
+    }
+
+    /**
+     * Result for services that only report whether publishing succeeded.
+     */
+    static List<SlackPostResult> fromPublish(boolean published, String responseBody) {
+        return Collections.singletonList(published
+                ? delivered(null, 0, 0, responseBody)
+                : failed(null, Status.REJECTED, 0, 0, null));
+    }
+
+    /**
+     * @return the room as configured, including the thread if any
+     */
+    public String getRoom() {
+        return room;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isDelivered() {
+        return status == Status.DELIVERED;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return time taken including retries and waiting for the rate limit
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public String getTs() {
+        return ts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public String toString() {
+        return "SlackPostResult{room=" + room + ", status=" + status + ", statusCode=" + statusCode
+                + ", latencyMillis=" + latencyMillis + ", error=" + error + "}";
+    }
+}
@@ -1,5 +1,6 @@
 package jenkins.plugins.slack;
 
+import java.util.List;
 import net.sf.json.JSONArray;
 
 public interface SlackService {
@@ -9,5 +10,24 @@ public interface SlackService {
 
     boolean publish(String message, JSONArray attachments, String color);
 
+    /**
+     * @return the result of posting to each room, in the order the rooms are configured
+     */
+    default List<SlackPostResult> publishWithResults(String message, String color) {
+        return SlackPostResult.fromPublish(publish(message, color), getResponseString());
+    }
+
+    /**
+     * @return the result of posting to each room, in the order the rooms are configured
+     */
+    default List<SlackPostResult> publishWithResults(String message, JSONArray attachments, String color) {
+        return SlackPostResult.fromPublish(publish(message, attachments, color), getResponseString());
+    }
+
+    /**
+     * @deprecated not reliable when the service is used by several callers, use the {@link SlackPostResult}s
+     * returned by {@link #publishWithResults(String, JSONArray, String)} instead
+     */
+    @Deprecated
     String getResponseString();
 }
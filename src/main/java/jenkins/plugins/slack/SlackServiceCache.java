@@ -0,0 +1,84 @@
+package jenkins.plugins.slack;
+
+import hudson.Util;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of {@link StandardSlackService}s keyed by their fully resolved configuration, so builds notifying the
+ * same channels share one instance.
+ *
+ * Only a digest of the token is kept in the key.
+ */
+final class SlackServiceCache {
+
+    static final int MAX_ENTRIES = 256;
+
+    private static final Map<Key, StandardSlackService> services = new LinkedHashMap<Key, StandardSlackService>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, StandardSlackService> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private SlackServiceCache() {
+    }
+
+    static StandardSlackService get(String baseUrl, String teamDomain, boolean botUser, String room,
+                                    String populatedToken, boolean useOutbox) {
+        Key key = new Key(baseUrl, teamDomain, botUser, room, Util.getDigestOf(populatedToken), useOutbox);
+        synchronized (services) {
+            StandardSlackService service = services.get(key);
+            if (service == null) {
+                service = new StandardSlackService(baseUrl, teamDomain, botUser, room, false, populatedToken);
+                service.setUseOutbox(useOutbox);
+                services.put(key, service);
+            }
+            return service;
+        }
+    }
+
+    static int size() {
+        synchronized (services) {
+            return services.size();
+        }
+    }
+
+    private static final class Key {
+        private final String baseUrl;
+        private final String teamDomain;
+        private final boolean botUser;
+        private final String room;
+        private final String tokenDigest;
+        private final boolean useOutbox;
+
+        private Key(String baseUrl, String teamDomain, boolean botUser, String room, String tokenDigest, boolean useOutbox) {
+            this.baseUrl = baseUrl;
+            this.teamDomain = teamDomain;
+            this.botUser = botUser;
+            this.room = room;
+            this.tokenDigest = tokenDigest;
+            this.useOutbox = useOutbox;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return botUser == key.botUser && useOutbox == key.useOutbox && Objects.equals(baseUrl, key.baseUrl)
+                    && Objects.equals(teamDomain, key.teamDomain) && Objects.equals(room, key.room)
+                    && tokenDigest.equals(key.tokenDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseUrl, teamDomain, botUser, room, tokenDigest, useOutbox);
+        }
+    }
+}
@@ -1,34 +1,33 @@
 package jenkins.plugins.slack;
 
-import hudson.ProxyConfiguration;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import hudson.Util;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import jenkins.model.Jenkins;
+import jenkins.plugins.slack.dispatch.NotificationDispatcher;
+import jenkins.plugins.slack.http.HttpClientPool;
+import jenkins.plugins.slack.http.JsonPayloadEntity;
+import jenkins.plugins.slack.http.JsonPayloadEntity.SharedFields;
+import jenkins.plugins.slack.http.RetryPolicy;
+import jenkins.plugins.slack.http.RoomFanOut;
+import jenkins.plugins.slack.http.SlackRateLimiter;
+import jenkins.plugins.slack.outbox.Outbox;
+import jenkins.plugins.slack.outbox.OutboxRecord;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpHost;
 import org.apache.http.HttpStatus;
-import org.apache.http.NameValuePair;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.conn.routing.HttpRoutePlanner;
-import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
-import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 
@@ -42,8 +41,11 @@ public class StandardSlackService implements SlackService {
     private boolean botUser;
     private String[] roomIds;
     private boolean replyBroadcast;
-    private String responseString;
     private String populatedToken;
+    private String workspaceKey;
+    private boolean useOutbox;
+    private SlackRateLimiter rateLimiter = SlackRateLimiter.get();
+    private final ThreadLocal<String> lastResponse = new ThreadLocal<>();
 
     /**
      * @deprecated use {@link #StandardSlackService(String, String, boolean, String, boolean, String)} instead}
@@ -104,8 +106,13 @@ public class StandardSlackService implements SlackService {
         this.replyBroadcast = replyBroadcast;
     }
 
+    /**
+     * @deprecated use the {@link SlackPostResult}s returned by {@link #publishWithResults(String, JSONArray, String)}
+     * @return the response to the last message published by the calling thread, if it was sent by a bot user
+     */
+    @Deprecated
     public String getResponseString() {
-        return responseString;
+        return lastResponse.get();
     }
 
     public boolean publish(String message) {
@@ -113,7 +120,66 @@ public class StandardSlackService implements SlackService {
     }
 
     public boolean publish(String message, String color) {
-        //prepare attachments first
+        return publish(null, defaultAttachments(message, color), color);
+    }
+
+    @Override
+    public boolean publish(String message, JSONArray attachments, String color) {
+        List<SlackPostResult> results = publishWithResults(message, attachments, color);
+        boolean result = true;
+        for (SlackPostResult postResult : results) {
+            result &= postResult.isDelivered();
+        }
+        return result;
+    }
+
+    @Override
+    public List<SlackPostResult> publishWithResults(String message, String color) {
+        return publishWithResults(null, defaultAttachments(message, color), color);
+    }
+
+    @Override
+    public List<SlackPostResult> publishWithResults(String message, JSONArray attachments, String color) {
+        // the fields shared by all rooms are serialized once, only the channel is added per room
+        Map<String, Object> payload = new LinkedHashMap<>();
+        if (StringUtils.isNotEmpty(message)) {
+            payload.put("text", message);
+        }
+        payload.put("attachments", attachments);
+        if (isWebhook()) {
+            payload.put("link_names", "1");
+        } else {
+            payload.put("link_names", true);
+            payload.put("as_user", true);
+            if (replyBroadcast) {
+                payload.put("reply_broadcast", true);
+            }
+        }
+        SharedFields shared = SharedFields.of(payload);
+        // don't hold up a build executor for long, queued notifications wait for as long as it takes
+        long maxWaitMillis = NotificationDispatcher.isDispatching() ? Long.MAX_VALUE : RetryPolicy.SYNCHRONOUS_MAX_WAIT_MILLIS;
+
+        List<SlackPostResult> results;
+        if (roomIds.length > 1 && RoomFanOut.isEnabled()) {
+            List<Supplier<SlackPostResult>> posts = new ArrayList<>(roomIds.length);
+            for (String roomId : roomIds) {
+                posts.add(() -> publishToRoom(roomId, shared, message, attachments, color, maxWaitMillis));
+            }
+            results = RoomFanOut.invokeAll(posts, (i, e) -> {
+                logger.log(Level.WARNING, "Error posting to Slack", e);
+                return SlackPostResult.failed(roomIds[i], SlackPostResult.Status.REJECTED, 0, 0, e.toString());
+            });
+        } else {
+            results = new ArrayList<>(roomIds.length);
+            for (String roomId : roomIds) {
+                results.add(publishToRoom(roomId, shared, message, attachments, color, maxWaitMillis));
+            }
+        }
+        lastResponse.set(results.get(results.size() - 1).getResponseBody());
+        return Collections.unmodifiableList(results);
+    }
+
+    private static JSONArray defaultAttachments(String message, String color) {
         JSONObject field = new JSONObject();
         field.put("short", false);
         field.put("value", message);
@@ -132,90 +198,158 @@ public class StandardSlackService implements SlackService {
         attachment.put("mrkdwn_in", mrkdwn);
         JSONArray attachments = new JSONArray();
         attachments.add(attachment);
+        return attachments;
+    }
 
-        return publish(null, attachments, color);
+    private boolean isWebhook() {
+        return !botUser || !StringUtils.isEmpty(baseUrl);
     }
 
-    @Override
-    public boolean publish(String message, JSONArray attachments, String color) {
-        boolean result = true;
-        for (String roomId : roomIds) {
-            HttpPost post;
-            String url;
-            String threadTs = "";
-            List<NameValuePair> nvps = new ArrayList<>();
-
-            //thread_ts is passed once with roomId: Ex: roomId:threadTs
-            String[] splitThread = roomId.split("[:]+");
-            if (splitThread.length > 1) {
-                roomId = splitThread[0];
-                threadTs = splitThread[1];
+    private SlackPostResult publishToRoom(String room, SharedFields shared, String message, JSONArray attachments, String color,
+                                          long maxWaitMillis) {
+        String roomId = room;
+        HttpPost post;
+        String url;
+        String threadTs = "";
+
+        //thread_ts is passed once with roomId: Ex: roomId:threadTs
+        String[] splitThread = roomId.split("[:]+");
+        if (splitThread.length > 1) {
+            roomId = splitThread[0];
+            threadTs = splitThread[1];
+        }
+        Map<String, Object> roomPayload = new LinkedHashMap<>();
+        //prepare post methods for both requests types
+        if (isWebhook()) {
+            url = "https://" + teamDomain + "." + host + "/services/hooks/jenkins-ci?token=" + populatedToken;
+            if (!StringUtils.isEmpty(baseUrl)) {
+                url = baseUrl + populatedToken;
             }
-            //prepare post methods for both requests types
-            if (!botUser || !StringUtils.isEmpty(baseUrl)) {
-                url = "https://" + teamDomain + "." + host + "/services/hooks/jenkins-ci?token=" + populatedToken;
-                if (!StringUtils.isEmpty(baseUrl)) {
-                    url = baseUrl + populatedToken;
-                }
-                post = new HttpPost(url);
-                JSONObject json = new JSONObject();
+            post = new HttpPost(url);
+            roomPayload.put("channel", roomId);
+            post.setEntity(JsonPayloadEntity.form("payload", roomPayload, shared));
+        } else {
+            url = "https://slack.com/api/chat.postMessage";
+            post = new HttpPost(url);
+            post.setHeader("Authorization", "Bearer " + populatedToken);
+            roomPayload.put("channel", roomId.replace("#", ""));
+            if (threadTs.length() > 1) {
+                roomPayload.put("thread_ts", threadTs);
+            }
+            post.setEntity(JsonPayloadEntity.json(roomPayload, shared));
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            // the attachments were already serialized into the payload, only its size is logged
+            logger.fine("Posting: to " + roomId + " on " + teamDomain + ": " + post.getEntity().getContentLength()
+                    + " bytes, " + color);
+        }
 
-                json.put("channel", roomId);
-                if (StringUtils.isNotEmpty(message)) {
-                    json.put("text", message);
-                }
-                json.put("attachments", attachments);
-                json.put("link_names", "1");
-
-                nvps.add(new BasicNameValuePair("payload", json.toString()));
-            } else {
-                url = "https://slack.com/api/chat.postMessage?token=" + populatedToken +
-                        "&channel=" + roomId.replace("#", "") +
-                        "&link_names=1" +
-                        "&as_user=true";
-                if (threadTs.length() > 1) {
-                    url += "&thread_ts=" + threadTs;
-                }
-                if (replyBroadcast) {
-                    url += "&reply_broadcast=true";
-                }
+        SlackPostResult result = send(post, room, roomId, maxWaitMillis);
+        if (result.getStatus() == SlackPostResult.Status.UNAVAILABLE && useOutbox) {
+            Outbox outbox = Outbox.get();
+            if (outbox != null) {
+                logger.info("Storing Slack notification to " + room + " in the outbox to retry later");
+                outbox.append(OutboxRecord.create(baseUrl, teamDomain, botUser, room, replyBroadcast, populatedToken,
+                        message, attachments.toString(), color));
+            }
+        }
+        return result;
+    }
+
+    private SlackPostResult send(HttpPost post, String room, String roomId, long maxWaitMillis) {
+        CloseableHttpClient client = getHttpClient();
+        long start = System.nanoTime();
+        int responseCode = 0;
+        String error = null;
+        for (int attempt = 0; ; attempt++) {
+            long wait = rateLimiter.reserve(getWorkspaceKey(), roomId, maxWaitMillis - elapsedMillis(start));
+            if (wait < 0) {
+                logger.log(Level.WARNING, "Gave up waiting for the Slack rate limit to post to " + roomId);
+                return SlackPostResult.failed(room, SlackPostResult.Status.UNAVAILABLE, responseCode, elapsedMillis(start),
+                        "Rate limited");
+            }
+            if (wait > 0) {
                 try {
-                    if (StringUtils.isNotEmpty(message)) {
-                        url += "&text=" + URLEncoder.encode(message, StandardCharsets.UTF_8.name());
-                    }
-                    url += "&attachments=" + URLEncoder.encode(attachments.toString(), StandardCharsets.UTF_8.name());
-                } catch (UnsupportedEncodingException e) {
-                    logger.log(Level.ALL, "Error while encoding payload: " + e.getMessage());
+                    sleep(wait, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return SlackPostResult.failed(room, SlackPostResult.Status.UNAVAILABLE, responseCode, elapsedMillis(start),
+                            "Rate limited");
                 }
-                post = new HttpPost(url);
             }
-            logger.fine("Posting: to " + roomId + " on " + teamDomain + " using " + url + ": " + attachments.toString() + " " + color);
-            CloseableHttpClient client = getHttpClient();
-
+            long retryDelay;
             try {
-                post.setEntity(new UrlEncodedFormEntity(nvps, "UTF-8"));
                 CloseableHttpResponse response = client.execute(post);
 
-                int responseCode = response.getStatusLine().getStatusCode();
+                responseCode = response.getStatusLine().getStatusCode();
                 HttpEntity entity = response.getEntity();
+                String responseString = null;
                 if (botUser && entity != null) {
                     responseString = EntityUtils.toString(entity);
-                }
-                if (responseCode != HttpStatus.SC_OK) {
-                    logger.log(Level.WARNING, "Slack post may have failed. Response: " + responseString);
-                    logger.log(Level.WARNING, "Response Code: " + responseCode);
-                    result = false;
                 } else {
+                    // fully read the response so the connection can go back to the pool
+                    EntityUtils.consume(entity);
+                }
+                response.close();
+                if (responseCode == HttpStatus.SC_OK) {
                     logger.fine("Posting succeeded");
+                    return SlackPostResult.delivered(room, responseCode, elapsedMillis(start), responseString);
+                }
+                logger.log(Level.WARNING, "Slack post may have failed. Response: " + responseString);
+                logger.log(Level.WARNING, "Response Code: " + responseCode);
+                error = "HTTP " + responseCode;
+                if (!RetryPolicy.isRetryable(responseCode)) {
+                    return SlackPostResult.failed(room, SlackPostResult.Status.REJECTED, responseCode, elapsedMillis(start), error);
+                }
+                if (responseCode == RetryPolicy.SC_TOO_MANY_REQUESTS) {
+                    // the rate limiter holds back the retry until Retry-After has passed
+                    rateLimiter.rateLimited(getWorkspaceKey(), RetryPolicy.retryAfterMillis(response), TimeUnit.MILLISECONDS);
+                    retryDelay = RetryPolicy.jitterMillis();
+                } else {
+                    retryDelay = RetryPolicy.backoffMillis(attempt);
                 }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Error posting to Slack", e);
+                error = e.toString();
+                retryDelay = RetryPolicy.backoffMillis(attempt);
             } catch (Exception e) {
                 logger.log(Level.WARNING, "Error posting to Slack", e);
-                result = false;
+                return SlackPostResult.failed(room, SlackPostResult.Status.REJECTED, responseCode, elapsedMillis(start), e.toString());
             } finally {
                 post.releaseConnection();
             }
+
+            if (attempt + 1 >= RetryPolicy.MAX_ATTEMPTS || retryDelay > maxWaitMillis - elapsedMillis(start)) {
+                return SlackPostResult.failed(room, SlackPostResult.Status.UNAVAILABLE, responseCode, elapsedMillis(start), error);
+            }
+            logger.fine("Retrying post to " + roomId + " in " + retryDelay + "ms");
+            try {
+                sleep(retryDelay, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return SlackPostResult.failed(room, SlackPostResult.Status.UNAVAILABLE, responseCode, elapsedMillis(start), error);
+            }
         }
-        return result;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return identifies the workspace and rooms this service posts to, with only a digest of the token
+     */
+    public String getDestinationKey() {
+        return getWorkspaceKey() + "#" + String.join(",", roomIds);
+    }
+
+    private String getWorkspaceKey() {
+        String key = workspaceKey;
+        if (key == null) {
+            key = (StringUtils.isEmpty(baseUrl) ? teamDomain : baseUrl) + ":" + Util.getDigestOf(populatedToken);
+            workspaceKey = key;
+        }
+        return key;
     }
 
     private String getTokenToUse(String authTokenCredentialId, String token) {
@@ -232,32 +366,29 @@ public class StandardSlackService implements SlackService {
     }
 
     protected CloseableHttpClient getHttpClient() {
-        final HttpClientBuilder clientBuilder = HttpClients.custom();
-        final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-        clientBuilder.setDefaultCredentialsProvider(credentialsProvider);
-
-        Jenkins jenkins = Jenkins.getInstanceOrNull();
-        if (jenkins != null) {
-            ProxyConfiguration proxy = jenkins.proxy;
-            if (proxy != null) {
-                final HttpHost proxyHost = new HttpHost(proxy.name, proxy.port);
-                final HttpRoutePlanner routePlanner = new DefaultProxyRoutePlanner(proxyHost);
-                clientBuilder.setRoutePlanner(routePlanner);
-
-                String username = proxy.getUserName();
-                String password = proxy.getPassword();
-                // Consider it to be passed if username specified. Sufficient?
-                if (username != null && !"".equals(username.trim())) {
-                    logger.info("Using proxy authentication (user=" + username + ")");
-                    credentialsProvider.setCredentials(new AuthScope(proxyHost),
-                            new UsernamePasswordCredentials(username, password));
-                }
-            }
-        }
-        return clientBuilder.build();
+        return HttpClientPool.get();
+    }
+
+    /**
+     * Waits for the rate limit or before retrying a post.
+     */
+    protected void sleep(long duration, TimeUnit unit) throws InterruptedException {
+        unit.sleep(duration);
+    }
+
+    void setRateLimiter(SlackRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
     }
 
     void setHost(String host) {
         this.host = host;
     }
+
+    /**
+     * Store notifications that couldn't be delivered because Slack was unavailable in the {@link Outbox},
+     * so they are sent later.
+     */
+    void setUseOutbox(boolean useOutbox) {
+        this.useOutbox = useOutbox;
+    }
 }
@@ -0,0 +1,105 @@
+package jenkins.plugins.slack;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Cause;
+import hudson.model.Run;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.BiFunction;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Finds the upstream builds whose changes are reported for a build without changes of its own.
+ *
+ * The upstream causes are followed breadth first until a build with changes is reached on each path. Every upstream
+ * build is looked up at most once per traversal, so diamond-shaped trigger chains and cycles of causes don't resolve
+ * the same builds again, and the traversal stops at a maximum depth and number of upstream builds. The result is
+ * kept for as long as the build is in memory.
+ */
+final class UpstreamChanges {
+
+    private static final String PREFIX = UpstreamChanges.class.getName();
+
+    static final int MAX_DEPTH = SystemProperties.getInteger(PREFIX + ".maxDepth", 10);
+    static final int MAX_BUILDS = SystemProperties.getInteger(PREFIX + ".maxBuilds", 50);
+
+    private static final Map<Run<?, ?>, List<AbstractBuild<?, ?>>> resolved = new WeakHashMap<>();
+
+    private final BiFunction<String, Integer, AbstractBuild<?, ?>> lookup;
+    private final int maxDepth;
+    private final int maxBuilds;
+
+    UpstreamChanges(BiFunction<String, Integer, AbstractBuild<?, ?>> lookup, int maxDepth, int maxBuilds) {
+        this.lookup = lookup;
+        this.maxDepth = maxDepth;
+        this.maxBuilds = maxBuilds;
+    }
+
+    /**
+     * @return the closest upstream builds with changes, in the order they were found, empty if there are none
+     */
+    static List<AbstractBuild<?, ?>> of(Run<?, ?> build) {
+        synchronized (resolved) {
+            List<AbstractBuild<?, ?>> builds = resolved.get(build);
+            if (builds != null) {
+                return builds;
+            }
+        }
+        List<AbstractBuild<?, ?>> builds = Collections.unmodifiableList(
+                new UpstreamChanges(UpstreamChanges::findBuild, MAX_DEPTH, MAX_BUILDS).resolve(build));
+        synchronized (resolved) {
+            resolved.put(build, builds);
+        }
+        return builds;
+    }
+
+    private static AbstractBuild<?, ?> findBuild(String projectName, Integer number) {
+        AbstractProject<?, ?> project = Jenkins.get().getItemByFullName(projectName, AbstractProject.class);
+        return project != null ? project.getBuildByNumber(number) : null;
+    }
+
+    List<AbstractBuild<?, ?>> resolve(Run<?, ?> build) {
+        List<AbstractBuild<?, ?>> withChanges = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        visited.add(build.getExternalizableId());
+        Deque<Run<?, ?>> queue = new ArrayDeque<>();
+        queue.add(build);
+        for (int depth = 0; depth < maxDepth && !queue.isEmpty(); depth++) {
+            for (int remaining = queue.size(); remaining > 0; remaining--) {
+                for (Cause cause : queue.remove().getCauses()) {
+                    if (!(cause instanceof Cause.UpstreamCause)) {
+                        continue;
+                    }
+                    Cause.UpstreamCause upstream = (Cause.UpstreamCause) cause;
+                    String key = upstream.getUpstreamProject() + "#" + upstream.getUpstreamBuild();
+                    if (!visited.add(key)) {
+                        continue;
+                    }
+                    if (visited.size() > maxBuilds + 1) {
+                        return withChanges;
+                    }
+                    AbstractBuild<?, ?> upstreamBuild = lookup.apply(upstream.getUpstreamProject(),
+                            upstream.getUpstreamBuild());
+                    if (upstreamBuild == null) {
+                        continue;
+                    }
+                    if (upstreamBuild.getChangeSet().isEmptySet()) {
+                        queue.add(upstreamBuild);
+                    } else {
+                        withChanges.add(upstreamBuild);
+                    }
+                }
+            }
+        }
+        return withChanges;
+    }
+}
@@ -6,10 +6,22 @@ import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.domains.DomainRequirement;
+import hudson.Extension;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
 import hudson.security.ACL;
 import hudson.util.Secret;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
@@ -24,6 +36,14 @@ public class GlobalCredentialMigrator {
     private static final Logger LOGGER = Logger.getLogger(GlobalCredentialMigrator.class
             .getName());
 
+    /**
+     * SHA-256 of each credential's secret to its id, shared by the migrations of one boot so each secret is only
+     * decrypted once. It is rebuilt when the system credentials are saved or the credential ids change.
+     */
+    private static Map<String, String> idsByDigest;
+    private static Set<String> indexedIds;
+    private static int indexBuilds;
+
     public StandardCredentials migrate(@Nonnull String token) {
         LOGGER.info("Migrating slack global config: moving integration token text into a credential");
 
@@ -37,11 +57,72 @@ public class GlobalCredentialMigrator {
                         CredentialsMatchers.always()
                 );
 
-        return allStringCredentials
-                .stream()
-                .filter(cred -> cred.getSecret().getPlainText().equals(token))
-                .findAny()
-                .orElseGet(() -> addCredentialIfNotPresent(token));
+        synchronized (GlobalCredentialMigrator.class) {
+            StringCredentials existing = findByToken(allStringCredentials, token);
+            if (existing != null) {
+                return existing;
+            }
+            Map<String, String> index = idsByDigest;
+            Set<String> ids = indexedIds;
+            StringCredentials added = addCredentialIfNotPresent(token);
+            // saving the credential dropped the index, it is still current apart from the credential just added
+            index.put(digest(token), added.getId());
+            ids.add(added.getId());
+            idsByDigest = index;
+            indexedIds = ids;
+            return added;
+        }
+    }
+
+    private static StringCredentials findByToken(List<StringCredentials> credentials, String token) {
+        Map<String, StringCredentials> byId = new HashMap<>();
+        for (StringCredentials credential : credentials) {
+            byId.putIfAbsent(credential.getId(), credential);
+        }
+        if (idsByDigest == null || !indexedIds.equals(byId.keySet())) {
+            buildIndex(byId);
+        }
+        String id = idsByDigest.get(digest(token));
+        StringCredentials match = id != null ? byId.get(id) : null;
+        if (match != null && match.getSecret().getPlainText().equals(token)) {
+            return match;
+        }
+        if (id != null) {
+            // the secret changed without the credentials being saved, e.g. by another credentials provider
+            buildIndex(byId);
+            id = idsByDigest.get(digest(token));
+            match = id != null ? byId.get(id) : null;
+            return match != null && match.getSecret().getPlainText().equals(token) ? match : null;
+        }
+        return null;
+    }
+
+    private static void buildIndex(Map<String, StringCredentials> byId) {
+        Map<String, String> index = new HashMap<>();
+        for (StringCredentials credential : byId.values()) {
+            index.putIfAbsent(digest(credential.getSecret().getPlainText()), credential.getId());
+        }
+        idsByDigest = index;
+        indexedIds = new HashSet<>(byId.keySet());
+        indexBuilds++;
+    }
+
+    static synchronized void invalidateIndex() {
+        idsByDigest = null;
+        indexedIds = null;
+    }
+
+    static synchronized int getIndexBuilds() {
+        return indexBuilds;
+    }
+
+    private static String digest(String secret) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Util.toHexString(sha256.digest(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     private StringCredentials addCredentialIfNotPresent(@Nonnull String token) {
@@ -63,4 +144,17 @@ public class GlobalCredentialMigrator {
 
         return credentials;
     }
+
+    /**
+     * Drops the index when the system credentials are saved, as a secret may have changed under the same id.
+     */
+    @Extension
+    public static class CredentialsSaveListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SystemCredentialsProvider) {
+                invalidateIndex();
+            }
+        }
+    }
 }
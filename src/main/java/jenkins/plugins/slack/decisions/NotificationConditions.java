@@ -1,5 +1,6 @@
 package jenkins.plugins.slack.decisions;
 
+import hudson.model.Result;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
@@ -7,14 +8,33 @@ import jenkins.plugins.slack.SlackNotifier;
 import jenkins.plugins.slack.logging.BuildAwareLogger;
 
 public class NotificationConditions implements Predicate<Context> {
-    private final List<Predicate<Context>> conditions;
+    private List<Predicate<Context>> conditions;
+    private final SlackNotifier preferences;
+    private final NotificationTable table;
+    private final BuildAwareLogger log;
 
     public NotificationConditions(List<Predicate<Context>> conditions) {
+        this(conditions, null, null, null);
+    }
+
+    private NotificationConditions(List<Predicate<Context>> conditions, SlackNotifier preferences,
+                                   NotificationTable table, BuildAwareLogger log) {
         this.conditions = conditions;
+        this.preferences = preferences;
+        this.table = table;
+        this.log = log;
     }
 
+    /**
+     * Decides with the notifier's {@link NotificationTable}. The conditions themselves are only evaluated when debug
+     * logging is enabled, so each of them explains its decision.
+     */
     public static NotificationConditions create(SlackNotifier preferences, BuildAwareLogger log) {
-        return new NotificationConditions(Arrays.asList(
+        return new NotificationConditions(null, preferences, preferences.getNotificationTable(), log);
+    }
+
+    static List<Predicate<Context>> conditions(SlackNotifier preferences, BuildAwareLogger log) {
+        return Arrays.asList(
                 new OnAborted(preferences, log),
                 new OnSingleFailure(preferences, log),
                 new OnRepeatedFailure(preferences, log),
@@ -22,11 +42,32 @@ public class NotificationConditions implements Predicate<Context> {
                 new OnBackToNormal(preferences, log),
                 new OnSuccess(preferences, log),
                 new OnUnstable(preferences, log)
-        ));
+        );
     }
 
     @Override
     public boolean test(Context context) {
+        if (table != null && !log.isDebugEnabled()) {
+            Result current = context.currentResult();
+            Result previous = context.previousResultOrSuccess();
+            if (NotificationTable.covers(current) && NotificationTable.covers(previous)) {
+                String reason = table.lookup(current, previous);
+                if (reason != null) {
+                    log.info(context.currentKey(), "will send " + reason + "Notification because build matches and user preferences allow it");
+                }
+                return reason != null;
+            }
+        }
+        return explain(context);
+    }
+
+    /**
+     * Evaluates every condition until one matches, each of them logging why it does or doesn't send a notification.
+     */
+    public boolean explain(Context context) {
+        if (conditions == null) {
+            conditions = conditions(preferences, log);
+        }
         return conditions.stream().anyMatch(p -> p.test(context));
     }
 }
@@ -0,0 +1,93 @@
+package jenkins.plugins.slack.decisions;
+
+import hudson.model.Result;
+import java.util.List;
+import java.util.function.Predicate;
+import jenkins.plugins.slack.SlackNotifier;
+
+/**
+ * The outcome of the notification conditions for every pair of current and previous build result, worked out once
+ * from a notifier's preferences.
+ *
+ * Each cell holds the name of the first condition that sends a notification, or null if none does, so deciding for a
+ * build is an array lookup instead of creating and evaluating every condition.
+ */
+public final class NotificationTable {
+
+    private static final Result[] RESULTS = {
+            Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED
+    };
+    private static final int NO_RESULT = RESULTS.length;
+
+    private final String[][] reasons;
+
+    private NotificationTable(String[][] reasons) {
+        this.reasons = reasons;
+    }
+
+    public static NotificationTable compile(SlackNotifier preferences) {
+        List<Predicate<Context>> conditions = NotificationConditions.conditions(preferences, null);
+        String[][] reasons = new String[RESULTS.length + 1][RESULTS.length];
+        for (int current = 0; current <= RESULTS.length; current++) {
+            for (int previous = 0; previous < RESULTS.length; previous++) {
+                Context context = new ResultsContext(current < NO_RESULT ? RESULTS[current] : null, RESULTS[previous]);
+                for (Predicate<Context> predicate : conditions) {
+                    Condition condition = (Condition) predicate;
+                    if (condition.isMetBy(context) && condition.userPreferenceMatches()) {
+                        reasons[current][previous] = condition.getClass().getSimpleName();
+                        break;
+                    }
+                }
+            }
+        }
+        return new NotificationTable(reasons);
+    }
+
+    /**
+     * @return the name of the condition that sends a notification, null if none does
+     * @throws IllegalArgumentException if one of the results isn't one of the standard results
+     */
+    String lookup(Result current, Result previous) {
+        return reasons[indexOf(current)][indexOf(previous)];
+    }
+
+    static boolean covers(Result result) {
+        return result == null || result.ordinal < RESULTS.length && RESULTS[result.ordinal] == result;
+    }
+
+    private static int indexOf(Result result) {
+        if (result == null) {
+            return NO_RESULT;
+        }
+        if (!covers(result)) {
+            throw new IllegalArgumentException("Unexpected result " + result);
+        }
+        return result.ordinal;
+    }
+
+    private static final class ResultsContext extends Context {
+        private final Result current;
+        private final Result previous;
+
+        private ResultsContext(Result current, Result previous) {
+            super(null, null);
+            this.current = current;
+            this.previous = previous;
+        }
+
+        @Override
+        public String currentKey() {
+            return "";
+        }
+
+        @Override
+        public Result previousResultOrSuccess() {
+            return previous;
+        }
+
+        @Override
+        public Result currentResult() {
+            return current;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package jenkins.plugins.slack.dispatch;
+
+import jenkins.plugins.slack.SlackService;
+import net.sf.json.JSONArray;
+
+/**
+ * Queues publish calls on the {@link NotificationDispatcher} instead of sending them on the calling thread.
+ *
+ * Publish methods return as soon as the notification is queued, so they only report false when it was dropped.
+ */
+public class AsyncSlackService implements SlackService {
+
+    private final SlackService delegate;
+
+    public AsyncSlackService(SlackService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean publish(String message) {
+        return NotificationDispatcher.dispatch(() -> delegate.publish(message));
+    }
+
+    @Override
+    public boolean publish(String message, String color) {
+        return NotificationDispatcher.dispatch(() -> delegate.publish(message, color));
+    }
+
+    @Override
+    public boolean publish(String message, JSONArray attachments, String color) {
+        return NotificationDispatcher.dispatch(() -> delegate.publish(message, attachments, color));
+    }
+
+    /**
+     * @return the service notifications are eventually sent with
+     */
+    public SlackService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return always null, the response isn't known when the notification is queued
+     */
+    @Override
+    public String getResponseString() {
+        return null;
+    }
+}
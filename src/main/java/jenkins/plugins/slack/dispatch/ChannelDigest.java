@@ -0,0 +1,151 @@
+package jenkins.plugins.slack.dispatch;
+
+import hudson.model.Result;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.SlackService;
+import jenkins.util.Timer;
+
+/**
+ * Collects completed builds per channel and posts a single summary every interval or every so many builds,
+ * instead of one post per build.
+ */
+public final class ChannelDigest {
+
+    public static final int DEFAULT_INTERVAL_SECONDS = 300;
+    public static final int DEFAULT_MAX_BUILDS = 50;
+    static final int MAX_LISTED_BUILDS = 30;
+
+    private static volatile long intervalMillis = TimeUnit.SECONDS.toMillis(DEFAULT_INTERVAL_SECONDS);
+    private static volatile int maxBuilds = DEFAULT_MAX_BUILDS;
+
+    private static final Map<String, Digest> pending = new ConcurrentHashMap<>();
+
+    private ChannelDigest() {
+    }
+
+    public static void configure(int intervalSeconds, int maxBuilds) {
+        ChannelDigest.intervalMillis = TimeUnit.SECONDS.toMillis(intervalSeconds > 0 ? intervalSeconds : DEFAULT_INTERVAL_SECONDS);
+        ChannelDigest.maxBuilds = maxBuilds > 0 ? maxBuilds : DEFAULT_MAX_BUILDS;
+    }
+
+    /**
+     * @param channelKey   identifies the channel the summary is posted to
+     * @param slackService posts the summary, the one from the latest build is used
+     * @param line         the escaped status line of the build, linking to it
+     */
+    public static void add(String channelKey, SlackService slackService, Result result, String line) {
+        Digest digest = pending.compute(channelKey, (k, current) -> {
+            if (current == null) {
+                Digest opened = new Digest();
+                opened.timer = Timer.get().schedule(() -> flush(k, opened), intervalMillis, TimeUnit.MILLISECONDS);
+                current = opened;
+            }
+            current.add(slackService, result, line);
+            return current;
+        });
+        if (digest.size() >= maxBuilds) {
+            flush(channelKey);
+        }
+    }
+
+    /**
+     * Posts every open summary straight away, e.g. before Jenkins shuts down.
+     */
+    public static void flushAll() {
+        for (String key : pending.keySet()) {
+            flush(key);
+        }
+    }
+
+    private static void flush(String channelKey) {
+        Digest digest = pending.remove(channelKey);
+        if (digest != null) {
+            digest.timer.cancel(false);
+            NotificationDispatcher.dispatch(digest::publish);
+        }
+    }
+
+    /**
+     * Closes the interval of this summary, unless it was already posted and another one started for the channel.
+     */
+    private static void flush(String channelKey, Digest digest) {
+        if (pending.remove(channelKey, digest)) {
+            NotificationDispatcher.dispatch(digest::publish);
+        }
+    }
+
+    /**
+     * @return the service posting straight to the channel, without the per-job merging or queueing around it; the
+     * summary is queued on its own when posted
+     */
+    public static SlackService unwrap(SlackService slackService) {
+        SlackService unwrapped = slackService;
+        while (true) {
+            if (unwrapped instanceof CoalescingSlackService) {
+                unwrapped = ((CoalescingSlackService) unwrapped).getDelegate();
+            } else if (unwrapped instanceof AsyncSlackService) {
+                unwrapped = ((AsyncSlackService) unwrapped).getDelegate();
+            } else {
+                return unwrapped;
+            }
+        }
+    }
+
+    static final class Digest {
+        // worst result first
+        private final Map<Result, Integer> counts = new TreeMap<>((a, b) -> b.ordinal - a.ordinal);
+        private final List<String> unsuccessful = new ArrayList<>();
+        private SlackService slackService;
+        private ScheduledFuture<?> timer;
+        private int size;
+
+        void add(SlackService slackService, Result result, String line) {
+            this.slackService = slackService;
+            Result known = result != null ? result : Result.NOT_BUILT;
+            counts.merge(known, 1, Integer::sum);
+            if (known != Result.SUCCESS) {
+                unsuccessful.add(line);
+            }
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        String getMessage() {
+            StringBuilder message = new StringBuilder();
+            message.append(size).append(size == 1 ? " build" : " builds").append(" completed:");
+            String separator = " ";
+            for (Map.Entry<Result, Integer> count : counts.entrySet()) {
+                message.append(separator).append(count.getValue()).append(' ').append(count.getKey());
+                separator = ", ";
+            }
+            int listed = Math.min(unsuccessful.size(), MAX_LISTED_BUILDS);
+            for (int i = 0; i < listed; i++) {
+                message.append("\n- ").append(unsuccessful.get(i));
+            }
+            if (unsuccessful.size() > listed) {
+                message.append("\n- and ").append(unsuccessful.size() - listed).append(" more");
+            }
+            return message.toString();
+        }
+
+        String getColor() {
+            if (counts.containsKey(Result.FAILURE)) {
+                return "danger";
+            }
+            return counts.size() == 1 && counts.containsKey(Result.SUCCESS) ? "good" : "warning";
+        }
+
+        private void publish() {
+            slackService.publish(getMessage(), getColor());
+        }
+    }
+}
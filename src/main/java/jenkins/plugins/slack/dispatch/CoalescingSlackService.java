@@ -0,0 +1,55 @@
+package jenkins.plugins.slack.dispatch;
+
+import jenkins.plugins.slack.SlackService;
+import net.sf.json.JSONArray;
+
+/**
+ * Hands plain notifications to the {@link NotificationCoalescer} so that those for the same job and channel are
+ * merged. Notifications with custom attachments are sent as they are.
+ */
+public class CoalescingSlackService implements SlackService {
+
+    private final SlackService delegate;
+    private final String key;
+    private final long windowMillis;
+
+    /**
+     * @param key identifies the job and channel the notifications are for
+     */
+    public CoalescingSlackService(SlackService delegate, String key, long windowMillis) {
+        this.delegate = delegate;
+        this.key = key;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public boolean publish(String message) {
+        return publish(message, "warning");
+    }
+
+    @Override
+    public boolean publish(String message, String color) {
+        NotificationCoalescer.add(key, delegate, message, color, windowMillis);
+        return true;
+    }
+
+    @Override
+    public boolean publish(String message, JSONArray attachments, String color) {
+        return delegate.publish(message, attachments, color);
+    }
+
+    /**
+     * @return the service notifications are eventually sent with
+     */
+    public SlackService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return always null, the response isn't known until the merged notification is sent
+     */
+    @Override
+    public String getResponseString() {
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package jenkins.plugins.slack.dispatch;
+
+import jenkins.plugins.slack.Messages;
+import org.jvnet.localizer.Localizable;
+
+/**
+ * Controls what happens to a notification when the dispatch queue is full.
+ */
+public enum DispatchOverflowPolicy {
+
+    BLOCK(Messages._DispatchOverflowPolicy_Block()),
+    DROP(Messages._DispatchOverflowPolicy_Drop());
+
+    private final Localizable description;
+
+    DispatchOverflowPolicy(Localizable description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package jenkins.plugins.slack.dispatch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.SlackService;
+import jenkins.util.Timer;
+
+/**
+ * Merges notifications for the same job and channel sent within a short window into a single post.
+ *
+ * The first notification opens the window, the merged post is sent through the {@link NotificationDispatcher}
+ * when the window closes or when {@link #MAX_MESSAGES} notifications have been collected.
+ */
+public final class NotificationCoalescer {
+
+    static final int MAX_MESSAGES = 20;
+
+    private static final Map<String, Digest> pending = new ConcurrentHashMap<>();
+
+    private NotificationCoalescer() {
+    }
+
+    /**
+     * @param key identifies the job and channel the notification is for
+     */
+    public static void add(String key, SlackService slackService, String message, String color, long windowMillis) {
+        Digest digest = pending.compute(key, (k, current) -> {
+            if (current == null) {
+                // the digest is always sent through the dispatcher, so it posts with the service itself
+                Digest opened = new Digest(ChannelDigest.unwrap(slackService));
+                opened.timer = Timer.get().schedule(() -> flush(k, opened), windowMillis, TimeUnit.MILLISECONDS);
+                current = opened;
+            }
+            current.add(message, color);
+            return current;
+        });
+        if (digest.size() >= MAX_MESSAGES) {
+            flush(key);
+        }
+    }
+
+    /**
+     * Sends every open digest straight away, e.g. before Jenkins shuts down.
+     */
+    public static void flushAll() {
+        for (String key : pending.keySet()) {
+            flush(key);
+        }
+    }
+
+    private static void flush(String key) {
+        Digest digest = pending.remove(key);
+        if (digest != null) {
+            digest.timer.cancel(false);
+            NotificationDispatcher.dispatch(digest::publish);
+        }
+    }
+
+    /**
+     * Closes the window of this digest, unless it was already flushed and another one opened under the same key.
+     */
+    private static void flush(String key, Digest digest) {
+        if (pending.remove(key, digest)) {
+            NotificationDispatcher.dispatch(digest::publish);
+        }
+    }
+
+    private static final class Digest {
+        private final SlackService slackService;
+        private ScheduledFuture<?> timer;
+        private final StringBuilder message = new StringBuilder();
+        private String color;
+        private int size;
+
+        private Digest(SlackService slackService) {
+            this.slackService = slackService;
+        }
+
+        private void add(String message, String color) {
+            if (size > 0) {
+                this.message.append('\n');
+            }
+            this.message.append(message);
+            // the latest notification reflects the current state of the job
+            this.color = color;
+            size++;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void publish() {
+            slackService.publish(message.toString(), color);
+        }
+    }
+}
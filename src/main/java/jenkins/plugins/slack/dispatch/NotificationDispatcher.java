@@ -0,0 +1,169 @@
+package jenkins.plugins.slack.dispatch;
+
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded queue and small worker pool that sends Slack notifications off the build executor thread.
+ */
+public final class NotificationDispatcher {
+
+    private static final Logger logger = Logger.getLogger(NotificationDispatcher.class.getName());
+
+    public static final int DEFAULT_WORKERS = 4;
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final int FLUSH_TIMEOUT_SECONDS = 30;
+    /**
+     * Milestone attained once queued notifications were sent, so the outbox and HTTP pool are only closed after.
+     */
+    public static final String FLUSHED = "SlackNotificationDispatcher.flushed";
+
+    private static int workers = DEFAULT_WORKERS;
+    private static int capacity = DEFAULT_CAPACITY;
+    private static DispatchOverflowPolicy overflowPolicy = DispatchOverflowPolicy.BLOCK;
+    private static ThreadPoolExecutor executor;
+    private static final ThreadLocal<Boolean> dispatching = new ThreadLocal<>();
+    private static boolean shutdown;
+
+    private NotificationDispatcher() {
+    }
+
+    /**
+     * Updates the queue settings. Notifications already queued are still sent by the previous workers.
+     */
+    public static synchronized void configure(int workers, int capacity, DispatchOverflowPolicy overflowPolicy) {
+        int newWorkers = workers > 0 ? workers : DEFAULT_WORKERS;
+        int newCapacity = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+        DispatchOverflowPolicy newPolicy = overflowPolicy != null ? overflowPolicy : DispatchOverflowPolicy.BLOCK;
+        if (newWorkers == NotificationDispatcher.workers && newCapacity == NotificationDispatcher.capacity
+                && newPolicy == NotificationDispatcher.overflowPolicy) {
+            return;
+        }
+        NotificationDispatcher.workers = newWorkers;
+        NotificationDispatcher.capacity = newCapacity;
+        NotificationDispatcher.overflowPolicy = newPolicy;
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Queues a notification, returns immediately unless the queue is full and the policy is {@link DispatchOverflowPolicy#BLOCK}.
+     * Notifications dispatched while sending a queued one are sent straight away, a worker waiting for room in its
+     * own queue would never get it.
+     *
+     * @return false if the notification was dropped
+     */
+    public static boolean dispatch(Runnable notification) {
+        if (isDispatching()) {
+            notification.run();
+            return true;
+        }
+        ThreadPoolExecutor current = executor();
+        if (current == null) {
+            logger.warning("Slack notification dispatcher is shut down, sending notification on the calling thread");
+            notification.run();
+            return true;
+        }
+        try {
+            current.execute(() -> {
+                dispatching.set(Boolean.TRUE);
+                try {
+                    notification.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Error sending queued Slack notification", e);
+                } finally {
+                    dispatching.remove();
+                }
+            });
+            return true;
+        } catch (DroppedException e) {
+            logger.warning("Slack notification queue is full, dropping notification");
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the calling thread is sending a queued notification, so it doesn't hold up a build
+     */
+    public static boolean isDispatching() {
+        return dispatching.get() != null;
+    }
+
+    public static synchronized int getQueueSize() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    private static synchronized ThreadPoolExecutor executor() {
+        if (executor == null && !shutdown) {
+            executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "SlackNotificationDispatcher"),
+                    rejectionHandler(overflowPolicy));
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(DispatchOverflowPolicy policy) {
+        if (policy == DispatchOverflowPolicy.DROP) {
+            return (task, pool) -> {
+                throw new DroppedException();
+            };
+        }
+        return (task, pool) -> {
+            if (pool.isShutdown()) {
+                // reconfigured or shutting down, don't lose the notification
+                task.run();
+                return;
+            }
+            try {
+                pool.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DroppedException();
+            }
+        };
+    }
+
+    /**
+     * Sends everything still queued, including open {@link NotificationCoalescer} and {@link ChannelDigest}
+     * summaries, before Jenkins stops, waiting at most {@link #FLUSH_TIMEOUT_SECONDS}.
+     */
+    @Terminator(attains = FLUSHED)
+    public static void flush() throws InterruptedException {
+        NotificationCoalescer.flushAll();
+        ChannelDigest.flushAll();
+        ThreadPoolExecutor current;
+        synchronized (NotificationDispatcher.class) {
+            current = executor;
+            executor = null;
+            shutdown = true;
+        }
+        if (current == null) {
+            return;
+        }
+        int pending = current.getQueue().size();
+        if (pending > 0) {
+            logger.info("Flushing " + pending + " queued Slack notification(s)");
+        }
+        current.shutdown();
+        if (!current.awaitTermination(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warning("Timed out flushing Slack notifications, " + current.shutdownNow().size() + " notification(s) were not sent");
+        }
+    }
+
+    private static final class DroppedException extends RuntimeException {
+        private DroppedException() {
+            super(null, null, false, false);
+        }
+    }
+}
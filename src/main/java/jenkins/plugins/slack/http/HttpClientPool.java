@@ -0,0 +1,213 @@
+package jenkins.plugins.slack.http;
+
+import hudson.ProxyConfiguration;
+import hudson.init.Terminator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.plugins.slack.dispatch.NotificationDispatcher;
+import jenkins.plugins.slack.outbox.Outbox;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Process-wide pooled HTTP client used to talk to Slack.
+ *
+ * The client is built lazily and only rebuilt when the pool settings or Jenkins' {@link ProxyConfiguration} change.
+ * Clients replaced by a rebuild are closed on the next maintenance pass so requests still in flight can finish.
+ */
+public final class HttpClientPool {
+
+    private static final Logger logger = Logger.getLogger(HttpClientPool.class.getName());
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 30;
+
+    private static volatile Settings settings = new Settings(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+            DEFAULT_IDLE_TIMEOUT_SECONDS);
+    private static volatile Pool pool;
+    private static final List<Pool> retired = new ArrayList<>();
+
+    private HttpClientPool() {
+    }
+
+    /**
+     * Updates the pool settings, the client is rebuilt on next use if anything changed.
+     */
+    public static void configure(int maxConnections, int maxConnectionsPerRoute, int idleTimeoutSeconds) {
+        settings = new Settings(
+                maxConnections > 0 ? maxConnections : DEFAULT_MAX_CONNECTIONS,
+                maxConnectionsPerRoute > 0 ? maxConnectionsPerRoute : DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+                idleTimeoutSeconds > 0 ? idleTimeoutSeconds : DEFAULT_IDLE_TIMEOUT_SECONDS
+        );
+    }
+
+    /**
+     * @return the shared client, callers must not close it
+     */
+    public static CloseableHttpClient get() {
+        ProxyConfiguration proxy = currentProxy();
+        Pool current = pool;
+        if (current != null && current.matches(settings, proxy)) {
+            return current.client;
+        }
+        return rebuild(proxy);
+    }
+
+    private static synchronized CloseableHttpClient rebuild(ProxyConfiguration proxy) {
+        Settings currentSettings = settings;
+        Pool current = pool;
+        if (current != null && current.matches(currentSettings, proxy)) {
+            return current.client;
+        }
+        if (current != null) {
+            logger.fine("Slack HTTP client settings or proxy configuration changed, rebuilding connection pool");
+            retired.add(current);
+        }
+        pool = new Pool(currentSettings, proxy);
+        return pool.client;
+    }
+
+    /**
+     * Closes idle and expired connections, and shuts down pools replaced since the last call.
+     */
+    public static void evictIdleConnections() {
+        List<Pool> toClose;
+        synchronized (HttpClientPool.class) {
+            toClose = new ArrayList<>(retired);
+            retired.clear();
+        }
+        for (Pool old : toClose) {
+            old.connectionManager.shutdown();
+        }
+        Pool current = pool;
+        if (current != null) {
+            current.connectionManager.closeExpiredConnections();
+            current.connectionManager.closeIdleConnections(current.settings.idleTimeoutSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Shuts down after queued notifications were sent and the outbox closed, so the last posts still have a client.
+     */
+    @Terminator(requires = {NotificationDispatcher.FLUSHED, Outbox.CLOSED})
+    public static synchronized void shutdown() {
+        for (Pool old : retired) {
+            old.connectionManager.shutdown();
+        }
+        retired.clear();
+        if (pool != null) {
+            pool.connectionManager.shutdown();
+            pool = null;
+        }
+    }
+
+    private static ProxyConfiguration currentProxy() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        return jenkins != null ? jenkins.proxy : null;
+    }
+
+    private static final class Settings {
+        private final int maxConnections;
+        private final int maxConnectionsPerRoute;
+        private final int idleTimeoutSeconds;
+
+        private Settings(int maxConnections, int maxConnectionsPerRoute, int idleTimeoutSeconds) {
+            this.maxConnections = maxConnections;
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            this.idleTimeoutSeconds = idleTimeoutSeconds;
+        }
+
+        private boolean sameAs(Settings other) {
+            return maxConnections == other.maxConnections
+                    && maxConnectionsPerRoute == other.maxConnectionsPerRoute
+                    && idleTimeoutSeconds == other.idleTimeoutSeconds;
+        }
+    }
+
+    private static final class Pool {
+        private final Settings settings;
+        private final ProxyConfiguration proxy;
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final CloseableHttpClient client;
+
+        private Pool(Settings settings, ProxyConfiguration proxy) {
+            this.settings = settings;
+            this.proxy = proxy;
+
+            connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(settings.maxConnections);
+            connectionManager.setDefaultMaxPerRoute(settings.maxConnectionsPerRoute);
+
+            final long maxKeepAlive = TimeUnit.SECONDS.toMillis(settings.idleTimeoutSeconds);
+            ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+                long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return keepAlive > 0 ? Math.min(keepAlive, maxKeepAlive) : maxKeepAlive;
+            };
+
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectionRequestTimeout(RetryPolicy.TIMEOUT_MILLIS)
+                    .setConnectTimeout(RetryPolicy.TIMEOUT_MILLIS)
+                    .setSocketTimeout(RetryPolicy.TIMEOUT_MILLIS)
+                    .build();
+
+            final HttpClientBuilder clientBuilder = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .setKeepAliveStrategy(keepAliveStrategy);
+            final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            clientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+
+            if (proxy != null) {
+                final HttpHost proxyHost = new HttpHost(proxy.name, proxy.port);
+                clientBuilder.setRoutePlanner(new DefaultProxyRoutePlanner(proxyHost));
+
+                String username = proxy.getUserName();
+                String password = proxy.getPassword();
+                // Consider it to be passed if username specified. Sufficient?
+                if (username != null && !"".equals(username.trim())) {
+                    logger.info("Using proxy authentication (user=" + username + ")");
+                    credentialsProvider.setCredentials(new AuthScope(proxyHost),
+                            new UsernamePasswordCredentials(username, password));
+                }
+            }
+            client = clientBuilder.build();
+        }
+
+        private boolean matches(Settings settings, ProxyConfiguration proxy) {
+            return sameProxy(this.proxy, proxy) && this.settings.sameAs(settings);
+        }
+
+        /**
+         * Jenkins creates a new {@link ProxyConfiguration} whenever it loads or saves its configuration, so only what
+         * the client is built from is compared.
+         */
+        private static boolean sameProxy(ProxyConfiguration a, ProxyConfiguration b) {
+            if (a == b) {
+                return true;
+            }
+            if (a == null || b == null) {
+                return false;
+            }
+            return a.port == b.port
+                    && Objects.equals(a.name, b.name)
+                    && Objects.equals(a.getUserName(), b.getUserName())
+                    && Objects.equals(a.getPassword(), b.getPassword());
+        }
+    }
+}
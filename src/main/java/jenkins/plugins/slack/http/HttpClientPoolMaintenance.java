@@ -0,0 +1,23 @@
+package jenkins.plugins.slack.http;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts idle connections from the shared {@link HttpClientPool} and unused {@link SlackRateLimiter} buckets.
+ */
+@Extension
+public class HttpClientPoolMaintenance extends PeriodicWork {
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.SECONDS.toMillis(15);
+    }
+
+    @Override
+    protected void doRun() {
+        HttpClientPool.evictIdleConnections();
+        SlackRateLimiter.get().evictIdleBuckets();
+    }
+}
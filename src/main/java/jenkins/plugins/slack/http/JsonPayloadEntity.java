@@ -0,0 +1,225 @@
+package jenkins.plugins.slack.http;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+/**
+ * Request entity for a Slack payload, serialized as JSON with Jackson instead of rendering json-lib trees to strings.
+ *
+ * A payload consists of the fields specific to one request, typically the channel, and {@link SharedFields} that
+ * are serialized once and then spliced into the request for every room. Nested {@link JSONObject}s and
+ * {@link net.sf.json.JSONArray}s are walked as they are. The entity can be written any number of times, so
+ * requests can be retried.
+ */
+public class JsonPayloadEntity extends AbstractHttpEntity {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] prefix;
+    private final byte[] fields;
+    private final byte[] separator;
+    private final byte[] shared;
+    private final byte[] suffix;
+
+    private JsonPayloadEntity(byte[] prefix, byte[] fields, byte[] separator, byte[] shared, byte[] suffix,
+                              ContentType contentType) {
+        this.prefix = prefix;
+        this.fields = fields;
+        this.separator = separator;
+        this.shared = shared;
+        this.suffix = suffix;
+        setContentType(contentType.toString());
+    }
+
+    /**
+     * @return an entity sending the payload as an {@code application/json} body
+     */
+    public static JsonPayloadEntity json(Map<String, ?> payload) {
+        return json(payload, SharedFields.NONE);
+    }
+
+    /**
+     * @return an entity sending the fields followed by the shared fields as an {@code application/json} body
+     */
+    public static JsonPayloadEntity json(Map<String, ?> fields, SharedFields shared) {
+        byte[] members = members(fields);
+        return new JsonPayloadEntity(new byte[]{'{'}, members, separator(members, shared.json, new byte[]{','}),
+                shared.json, new byte[]{'}'}, ContentType.APPLICATION_JSON);
+    }
+
+    /**
+     * @return an entity sending the payload as the single parameter of an url encoded form, like incoming webhooks expect
+     */
+    public static JsonPayloadEntity form(String parameter, Map<String, ?> payload) {
+        return form(parameter, payload, SharedFields.NONE);
+    }
+
+    /**
+     * @return an entity sending the fields followed by the shared fields as the single parameter of an url encoded form
+     */
+    public static JsonPayloadEntity form(String parameter, Map<String, ?> fields, SharedFields shared) {
+        byte[] members = formEncode(members(fields));
+        byte[] sharedMembers = shared.getFormEncoded();
+        String parameterName = new String(formEncode(parameter.getBytes(StandardCharsets.UTF_8)), StandardCharsets.US_ASCII);
+        byte[] prefix = (parameterName + "=%7B").getBytes(StandardCharsets.US_ASCII);
+        return new JsonPayloadEntity(prefix, members, separator(members, sharedMembers, formEncode(new byte[]{','})),
+                sharedMembers, formEncode(new byte[]{'}'}),
+                ContentType.create(URLEncodedUtils.CONTENT_TYPE, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] separator(byte[] members, byte[] shared, byte[] separator) {
+        return members.length > 0 && shared.length > 0 ? separator : new byte[0];
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return prefix.length + fields.length + separator.length + shared.length + suffix.length;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream((int) getContentLength());
+        writeTo(content);
+        return new ByteArrayInputStream(content.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(prefix);
+        out.write(fields);
+        out.write(separator);
+        out.write(shared);
+        out.write(suffix);
+        out.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Serializes the fields as an object and strips its braces, so the members can be spliced into another object.
+     */
+    private static byte[] members(Map<String, ?> fields) {
+        if (fields.isEmpty()) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            writeValue(generator, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] json = out.toByteArray();
+        return Arrays.copyOfRange(json, 1, json.length - 1);
+    }
+
+    static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null || value instanceof JSONNull
+                || value instanceof JSONObject && ((JSONObject) value).isNullObject()) {
+            generator.writeNull();
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> field : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(field.getKey()));
+                writeValue(generator, field.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Iterable) {
+            generator.writeStartArray();
+            for (Object element : (Iterable<?>) value) {
+                writeValue(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * Applies {@code application/x-www-form-urlencoded} encoding to UTF-8 bytes.
+     */
+    private static byte[] formEncode(byte[] bytes) {
+        byte[] encoded = new byte[bytes.length * 3];
+        int size = 0;
+        for (byte value : bytes) {
+            int b = value & 0xFF;
+            if (b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9'
+                    || b == '-' || b == '.' || b == '_' || b == '*') {
+                encoded[size++] = (byte) b;
+            } else if (b == ' ') {
+                encoded[size++] = '+';
+            } else {
+                encoded[size++] = '%';
+                encoded[size++] = HEX[b >> 4];
+                encoded[size++] = HEX[b & 0x0F];
+            }
+        }
+        return Arrays.copyOf(encoded, size);
+    }
+
+    /**
+     * Fields sent unchanged in every request of a publish, serialized once.
+     */
+    public static final class SharedFields {
+
+        static final SharedFields NONE = new SharedFields(Collections.emptyMap());
+
+        private final byte[] json;
+        private volatile byte[] formEncoded;
+
+        private SharedFields(Map<String, ?> fields) {
+            this.json = members(fields);
+        }
+
+        public static SharedFields of(Map<String, ?> fields) {
+            return new SharedFields(fields);
+        }
+
+        private byte[] getFormEncoded() {
+            byte[] encoded = formEncoded;
+            if (encoded == null) {
+                // computing it twice under contention is harmless
+                encoded = formEncode(json);
+                formEncoded = encoded;
+            }
+            return encoded;
+        }
+    }
+}
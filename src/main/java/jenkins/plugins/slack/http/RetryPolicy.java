@@ -0,0 +1,75 @@
+package jenkins.plugins.slack.http;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import jenkins.util.SystemProperties;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+
+/**
+ * Decides whether a failed post to Slack is retried and how long to wait before doing so.
+ */
+public final class RetryPolicy {
+
+    private static final String PREFIX = RetryPolicy.class.getName();
+
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+    public static final int MAX_ATTEMPTS = SystemProperties.getInteger(PREFIX + ".maxAttempts", 4);
+    static final int BASE_DELAY_MILLIS = SystemProperties.getInteger(PREFIX + ".baseDelayMillis", 500);
+    static final int MAX_DELAY_MILLIS = SystemProperties.getInteger(PREFIX + ".maxDelayMillis", 30000);
+    /**
+     * How long a post sent on the calling thread, usually a build executor, may spend waiting for the rate limit and
+     * between retries. Posts queued on the notification dispatcher wait as long as the rate limit and retries require.
+     */
+    public static final int SYNCHRONOUS_MAX_WAIT_MILLIS = SystemProperties.getInteger(PREFIX + ".synchronousMaxWaitMillis", 5000);
+    /**
+     * Limits each of leasing a pooled connection, connecting and waiting for data, so a single attempt stays within
+     * {@link #SYNCHRONOUS_MAX_WAIT_MILLIS} and hung connections don't hold on to the pool.
+     */
+    public static final int TIMEOUT_MILLIS = SystemProperties.getInteger(PREFIX + ".timeoutMillis",
+            Math.max(1, SYNCHRONOUS_MAX_WAIT_MILLIS / 3));
+
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private RetryPolicy() {
+    }
+
+    public static boolean isRetryable(int statusCode) {
+        return statusCode == SC_TOO_MANY_REQUESTS || statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Exponential backoff, randomised between half and all of the exponential delay.
+     *
+     * @param attempt the attempt that just failed, starting at 0
+     */
+    public static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_DELAY_MILLIS, (long) BASE_DELAY_MILLIS << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    /**
+     * Reads the Retry-After header of a 429 response, given in seconds by Slack.
+     */
+    public static long retryAfterMillis(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header != null) {
+            try {
+                long seconds = Long.parseLong(header.getValue().trim());
+                return Math.min(MAX_RETRY_AFTER_MILLIS, TimeUnit.SECONDS.toMillis(Math.max(seconds, 0)));
+            } catch (NumberFormatException e) {
+                // fall through to the default, HTTP dates aren't used by Slack
+            }
+        }
+        return DEFAULT_RETRY_AFTER_MILLIS;
+    }
+
+    /**
+     * A short random delay added to Retry-After so callers that were rate limited together don't retry together.
+     */
+    public static long jitterMillis() {
+        return ThreadLocalRandom.current().nextLong(0, 250);
+    }
+}
@@ -0,0 +1,72 @@
+package jenkins.plugins.slack.http;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Posts the same notification to several rooms at once over the shared {@link HttpClientPool}.
+ *
+ * The calling thread sends to the first room itself. When every fan-out thread is busy the remaining rooms are
+ * also sent on the calling thread, so a burst degrades to sequential sending rather than queueing.
+ */
+public final class RoomFanOut {
+
+    private static final int MAX_THREADS = 16;
+
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new NamingThreadFactory(new DaemonThreadFactory(), "SlackRoomFanOut"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private static volatile boolean enabled;
+
+    private RoomFanOut() {
+    }
+
+    public static void configure(boolean enabled) {
+        RoomFanOut.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs every task, in parallel when possible, and returns their results in the same order.
+     *
+     * @param onFailure gives the result of a task that threw from its index and what it threw, so one failing task
+     *                  doesn't lose the results of the others
+     */
+    public static <T> List<T> invokeAll(List<Supplier<T>> tasks, BiFunction<Integer, RuntimeException, T> onFailure) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (int i = 1; i < tasks.size(); i++) {
+            futures.add(CompletableFuture.supplyAsync(tasks.get(i), executor));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        if (!tasks.isEmpty()) {
+            try {
+                results.add(tasks.get(0).get());
+            } catch (RuntimeException e) {
+                results.add(onFailure.apply(0, e));
+            }
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                results.add(onFailure.apply(i + 1, cause instanceof RuntimeException ? (RuntimeException) cause : e));
+            }
+        }
+        return results;
+    }
+}
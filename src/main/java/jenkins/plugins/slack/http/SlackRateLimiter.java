@@ -0,0 +1,91 @@
+package jenkins.plugins.slack.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import jenkins.util.SystemProperties;
+
+/**
+ * Smooths bursts of notifications so they stay within Slack's rate limits.
+ *
+ * chat.postMessage and incoming webhooks allow about one message per second per channel with short bursts, and the
+ * workspace as a whole is held to Slack's tier 4 (100+ requests per minute). A token bucket is kept for each
+ * workspace and for each channel in it, and a post waits until both have a token.
+ */
+public final class SlackRateLimiter {
+
+    private static final String PREFIX = SlackRateLimiter.class.getName();
+
+    static final int WORKSPACE_PER_MINUTE = SystemProperties.getInteger(PREFIX + ".workspacePerMinute", 100);
+    static final int WORKSPACE_BURST = SystemProperties.getInteger(PREFIX + ".workspaceBurst", 20);
+    static final int CHANNEL_PER_SECOND = SystemProperties.getInteger(PREFIX + ".channelPerSecond", 1);
+    static final int CHANNEL_BURST = SystemProperties.getInteger(PREFIX + ".channelBurst", 5);
+    static final int MAX_WAIT_MILLIS = SystemProperties.getInteger(PREFIX + ".maxWaitMillis", 120000);
+
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private static final SlackRateLimiter SHARED = new SlackRateLimiter(WORKSPACE_PER_MINUTE, WORKSPACE_BURST,
+            CHANNEL_PER_SECOND, CHANNEL_BURST);
+
+    private final int workspacePerMinute;
+    private final int workspaceBurst;
+    private final int channelPerSecond;
+    private final int channelBurst;
+    private final Map<String, TokenBucket> workspaces = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> channels = new ConcurrentHashMap<>();
+
+    public SlackRateLimiter(int workspacePerMinute, int workspaceBurst, int channelPerSecond, int channelBurst) {
+        this.workspacePerMinute = workspacePerMinute;
+        this.workspaceBurst = workspaceBurst;
+        this.channelPerSecond = channelPerSecond;
+        this.channelBurst = channelBurst;
+    }
+
+    /**
+     * @return the limiter shared by every Slack service of this Jenkins, using the limits set by system properties
+     */
+    public static SlackRateLimiter get() {
+        return SHARED;
+    }
+
+    /**
+     * Reserves the next message to the channel, the caller waits for the returned time before posting it.
+     *
+     * @param maxWaitMillis the longest the caller is willing to wait, capped to {@link #MAX_WAIT_MILLIS}
+     * @return the time to wait in nanoseconds, or -1 if it would take longer than the maximum wait and nothing was
+     * reserved
+     */
+    public long reserve(String workspace, String channel, long maxWaitMillis) {
+        TokenBucket workspaceBucket = workspaceBucket(workspace);
+        TokenBucket channelBucket = channels.computeIfAbsent(workspace + "#" + channel,
+                k -> new TokenBucket(channelBurst, channelPerSecond, 1, TimeUnit.SECONDS));
+        long wait = Math.max(workspaceBucket.reserve(), channelBucket.reserve());
+        if (wait > TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(maxWaitMillis, MAX_WAIT_MILLIS)))) {
+            workspaceBucket.cancel();
+            channelBucket.cancel();
+            return -1;
+        }
+        return wait;
+    }
+
+    /**
+     * Holds back every post to the workspace after Slack answered with HTTP 429.
+     */
+    public void rateLimited(String workspace, long retryAfter, TimeUnit unit) {
+        workspaceBucket(workspace).pause(retryAfter, unit);
+    }
+
+    /**
+     * Forgets buckets that haven't been used for a while.
+     */
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        workspaces.values().removeIf(bucket -> now - bucket.lastUsed() > IDLE_BUCKET_NANOS);
+        channels.values().removeIf(bucket -> now - bucket.lastUsed() > IDLE_BUCKET_NANOS);
+    }
+
+    private TokenBucket workspaceBucket(String workspace) {
+        return workspaces.computeIfAbsent(workspace,
+                k -> new TokenBucket(workspaceBurst, workspacePerMinute, 1, TimeUnit.MINUTES));
+    }
+}
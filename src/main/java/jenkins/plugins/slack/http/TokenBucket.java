@@ -0,0 +1,61 @@
+package jenkins.plugins.slack.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that hands out reservations instead of blocking, so callers can wait outside the lock.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+    private volatile long lastUsed;
+
+    TokenBucket(int capacity, int tokensPerPeriod, long period, TimeUnit unit) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerPeriod / (double) unit.toNanos(period);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+        this.lastUsed = lastRefill;
+    }
+
+    /**
+     * Takes a token, possibly one that will only be available in the future.
+     *
+     * @return how long the caller has to wait before using the token, in nanoseconds
+     */
+    synchronized long reserve() {
+        long now = System.nanoTime();
+        lastUsed = now;
+        refill(now);
+        tokens -= 1;
+        long wait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        return Math.max(wait, pausedUntil - now);
+    }
+
+    /**
+     * Gives back a token taken by {@link #reserve()} that ended up not being used.
+     */
+    synchronized void cancel() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * Holds back every reservation for the given time, e.g. when the server asked us to retry later.
+     */
+    synchronized void pause(long duration, TimeUnit unit) {
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + unit.toNanos(duration));
+    }
+
+    long lastUsed() {
+        return lastUsed;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
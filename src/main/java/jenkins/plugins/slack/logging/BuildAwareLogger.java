@@ -3,4 +3,11 @@ package jenkins.plugins.slack.logging;
 public interface BuildAwareLogger {
     void debug(String key, String message, Object... args);
     void info(String key, String message, Object... args);
+
+    /**
+     * @return whether debug messages are written anywhere, so explaining a decision in detail is worth it
+     */
+    default boolean isDebugEnabled() {
+        return false;
+    }
 }
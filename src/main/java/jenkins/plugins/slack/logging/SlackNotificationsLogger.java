@@ -2,6 +2,7 @@ package jenkins.plugins.slack.logging;
 
 import hudson.model.AbstractBuild;
 import java.io.PrintStream;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.plugins.slack.SlackNotifier;
 
@@ -30,6 +31,11 @@ public class SlackNotificationsLogger implements BuildAwareLogger {
         system.fine(() -> String.join(" ", key, String.format(message, args)));
     }
 
+    @Override
+    public boolean isDebugEnabled() {
+        return system.isLoggable(Level.FINE);
+    }
+
     /**
      * Info logs are written to the system log with the build key and to the build's log without the key
      *
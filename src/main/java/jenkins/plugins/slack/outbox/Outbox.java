@@ -0,0 +1,244 @@
+package jenkins.plugins.slack.outbox;
+
+import hudson.init.Terminator;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.plugins.slack.dispatch.NotificationDispatcher;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Append-only store of Slack notifications that failed to send, under {@code JENKINS_HOME/slack-outbox}.
+ *
+ * Records are written as JSON lines to the active segment file. Writes are flushed to the OS straight away and
+ * synced to disk in batches shortly afterwards, off the calling thread. {@link #drain(Predicate)} seals the active
+ * segment, resends every record in the sealed segments and only then deletes them. Records that fail again are
+ * appended to the new active segment, so delivery is at-least-once across restarts.
+ */
+public final class Outbox {
+
+    private static final Logger logger = Logger.getLogger(Outbox.class.getName());
+
+    /**
+     * Milestone attained once the outbox was closed when Jenkins stops.
+     */
+    public static final String CLOSED = "SlackOutbox.closed";
+
+    private static final String PREFIX = Outbox.class.getName();
+    static final int MAX_ATTEMPTS = SystemProperties.getInteger(PREFIX + ".maxAttempts", 20);
+    static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(SystemProperties.getInteger(PREFIX + ".maxAgeHours", 24));
+    private static final long MAX_REPLAY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long SYNC_DELAY_MILLIS = 200;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+
+    private static Outbox instance;
+
+    private final File directory;
+    private long activeSequence;
+    private FileChannel active;
+    private boolean syncScheduled;
+
+    Outbox(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the outbox of this Jenkins instance, or null if Jenkins isn't running
+     */
+    public static synchronized Outbox get() {
+        if (instance == null) {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            if (jenkins == null) {
+                return null;
+            }
+            instance = new Outbox(new File(jenkins.getRootDir(), "slack-outbox"));
+        }
+        return instance;
+    }
+
+    /**
+     * Stores a record, returning before it is synced to disk.
+     */
+    public synchronized void append(OutboxRecord record) {
+        try {
+            byte[] line = (record.toJson() + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            FileChannel channel = activeSegment();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            scheduleSync();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not store undelivered Slack notification for " + record.getRoom(), e);
+        }
+    }
+
+    /**
+     * Tries to send every stored record that is due.
+     *
+     * @param sender sends a record, returning true once Slack accepted it
+     */
+    public void drain(Predicate<OutboxRecord> sender) {
+        for (File segment : sealSegments()) {
+            List<OutboxRecord> records = read(segment);
+            long now = System.currentTimeMillis();
+            for (OutboxRecord record : records) {
+                if (record.getNotBefore() > now) {
+                    append(record);
+                } else if (!sender.test(record)) {
+                    retryLater(record, now);
+                }
+            }
+            sync();
+            try {
+                Files.delete(segment.toPath());
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not delete replayed Slack outbox segment " + segment, e);
+            }
+        }
+    }
+
+    private void retryLater(OutboxRecord record, long now) {
+        if (record.getAttempts() >= MAX_ATTEMPTS || now - record.getCreated() > MAX_AGE_MILLIS) {
+            logger.warning("Giving up on Slack notification to " + record.getRoom() + " after "
+                    + record.getAttempts() + " attempts");
+            return;
+        }
+        append(record.failedAgain(now + replayDelayMillis(record.getAttempts())));
+    }
+
+    /**
+     * Exponential backoff from one minute up to half an hour, randomised so records don't all come due together.
+     */
+    static long replayDelayMillis(int attempts) {
+        long ceiling = Math.min(MAX_REPLAY_DELAY_MILLIS, TimeUnit.MINUTES.toMillis(1) << Math.min(Math.max(attempts - 1, 0), 5));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    /**
+     * Starts a new active segment and returns the older ones, oldest first.
+     */
+    private synchronized List<File> sealSegments() {
+        List<File> sealed = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return sealed;
+        }
+        closeActive();
+        sealed.addAll(Arrays.asList(files));
+        sealed.sort((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        return sealed;
+    }
+
+    private List<OutboxRecord> read(File segment) {
+        List<OutboxRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    records.add(OutboxRecord.fromJson(line));
+                } catch (IOException e) {
+                    // most likely a line cut short by a crash, the rest of the segment is still usable
+                    logger.log(Level.WARNING, "Skipping unreadable record in Slack outbox segment " + segment, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read Slack outbox segment " + segment, e);
+        }
+        return records;
+    }
+
+    private FileChannel activeSegment() throws IOException {
+        if (active == null) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory);
+            }
+            activeSequence = Math.max(activeSequence, highestSequence()) + 1;
+            File segment = new File(directory, String.format("%s%019d%s", SEGMENT_PREFIX, activeSequence, SEGMENT_SUFFIX));
+            active = FileChannel.open(segment.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return active;
+    }
+
+    private long highestSequence() {
+        long highest = 0;
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                highest = Math.max(highest, sequenceOf(file));
+            }
+        }
+        return highest;
+    }
+
+    private static long sequenceOf(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void scheduleSync() {
+        if (!syncScheduled) {
+            syncScheduled = true;
+            Timer.get().schedule(this::sync, SYNC_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void sync() {
+        syncScheduled = false;
+        if (active != null) {
+            try {
+                active.force(false);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not sync Slack outbox to disk", e);
+            }
+        }
+    }
+
+    private void closeActive() {
+        if (active != null) {
+            sync();
+            try {
+                active.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not close Slack outbox segment", e);
+            }
+            active = null;
+        }
+    }
+
+    /**
+     * Closed once queued notifications were sent, as those that fail still go to the outbox.
+     */
+    @Terminator(requires = NotificationDispatcher.FLUSHED, attains = CLOSED)
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            synchronized (instance) {
+                instance.closeActive();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package jenkins.plugins.slack.outbox;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hudson.util.Secret;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.UUID;
+
+/**
+ * A notification for a single room that could not be delivered, stored as one JSON line in the {@link Outbox}.
+ *
+ * The token is kept encrypted with Jenkins' secret key, like any other {@link Secret} on disk.
+ */
+public final class OutboxRecord {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper(JSON_FACTORY);
+
+    private final String id;
+    private final long created;
+    private final int attempts;
+    private final long notBefore;
+    private final String baseUrl;
+    private final String teamDomain;
+    private final boolean botUser;
+    private final String room;
+    private final boolean replyBroadcast;
+    private final String encryptedToken;
+    private final String message;
+    private final String attachments;
+    private final String color;
+
+    private OutboxRecord(String id, long created, int attempts, long notBefore, String baseUrl, String teamDomain,
+                         boolean botUser, String room, boolean replyBroadcast, String encryptedToken, String message,
+                         String attachments, String color) {
+        this.id = id;
+        this.created = created;
+        this.attempts = attempts;
+        this.notBefore = notBefore;
+        this.baseUrl = baseUrl;
+        this.teamDomain = teamDomain;
+        this.botUser = botUser;
+        this.room = room;
+        this.replyBroadcast = replyBroadcast;
+        this.encryptedToken = encryptedToken;
+        this.message = message;
+        this.attachments = attachments;
+        this.color = color;
+    }
+
+    public static OutboxRecord create(String baseUrl, String teamDomain, boolean botUser, String room,
+                                      boolean replyBroadcast, String token, String message, String attachments,
+                                      String color) {
+        long now = System.currentTimeMillis();
+        return new OutboxRecord(UUID.randomUUID().toString(), now, 1, now, baseUrl, teamDomain, botUser, room,
+                replyBroadcast, Secret.fromString(token).getEncryptedValue(), message, attachments, color);
+    }
+
+    /**
+     * @return a copy of this record after another failed attempt, not to be retried before notBefore
+     */
+    OutboxRecord failedAgain(long notBefore) {
+        return new OutboxRecord(id, created, attempts + 1, notBefore, baseUrl, teamDomain, botUser, room,
+                replyBroadcast, encryptedToken, message, attachments, color);
+    }
+
+    String toJson() throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator gen = JSON_FACTORY.createGenerator(writer)) {
+            gen.writeStartObject();
+            gen.writeStringField("id", id);
+            gen.writeNumberField("created", created);
+            gen.writeNumberField("attempts", attempts);
+            gen.writeNumberField("notBefore", notBefore);
+            gen.writeStringField("baseUrl", baseUrl);
+            gen.writeStringField("teamDomain", teamDomain);
+            gen.writeBooleanField("botUser", botUser);
+            gen.writeStringField("room", room);
+            gen.writeBooleanField("replyBroadcast", replyBroadcast);
+            gen.writeStringField("token", encryptedToken);
+            gen.writeStringField("message", message);
+            gen.writeStringField("attachments", attachments);
+            gen.writeStringField("color", color);
+            gen.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    static OutboxRecord fromJson(String line) throws IOException {
+        JsonNode json = MAPPER.readTree(line);
+        return new OutboxRecord(
+                text(json, "id"),
+                json.path("created").asLong(),
+                json.path("attempts").asInt(),
+                json.path("notBefore").asLong(),
+                text(json, "baseUrl"),
+                text(json, "teamDomain"),
+                json.path("botUser").asBoolean(),
+                text(json, "room"),
+                json.path("replyBroadcast").asBoolean(),
+                text(json, "token"),
+                text(json, "message"),
+                text(json, "attachments"),
+                text(json, "color")
+        );
+    }
+
+    private static String text(JsonNode json, String field) {
+        JsonNode node = json.get(field);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getNotBefore() {
+        return notBefore;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getTeamDomain() {
+        return teamDomain;
+    }
+
+    public boolean isBotUser() {
+        return botUser;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public boolean isReplyBroadcast() {
+        return replyBroadcast;
+    }
+
+    /**
+     * @return the decrypted token, or null if it can't be decrypted with this instance's secret key
+     */
+    public String getToken() {
+        Secret secret = Secret.decrypt(encryptedToken);
+        return secret != null ? secret.getPlainText() : null;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getAttachments() {
+        return attachments;
+    }
+
+    public String getColor() {
+        return color;
+    }
+}
@@ -0,0 +1,66 @@
+package jenkins.plugins.slack.outbox;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import jenkins.plugins.slack.SlackPostResult;
+import jenkins.plugins.slack.SlackService;
+import jenkins.plugins.slack.StandardSlackService;
+import net.sf.json.JSONArray;
+
+/**
+ * Resends the notifications stored in the {@link Outbox}, including those left over from before a restart.
+ */
+@Extension
+public class OutboxReplayer extends AsyncPeriodicWork {
+
+    private static final Logger logger = Logger.getLogger(OutboxReplayer.class.getName());
+
+    public OutboxReplayer() {
+        super("Slack outbox replay");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.SECONDS.toMillis(30);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        Outbox outbox = Outbox.get();
+        if (outbox != null) {
+            outbox.drain(OutboxReplayer::send);
+        }
+    }
+
+    private static boolean send(OutboxRecord record) {
+        String token = record.getToken();
+        if (token == null) {
+            logger.warning("Dropping Slack notification to " + record.getRoom() + ", its token can't be decrypted");
+            return true;
+        }
+        StandardSlackService service = new StandardSlackService(record.getBaseUrl(), record.getTeamDomain(),
+                record.isBotUser(), record.getRoom(), record.isReplyBroadcast(), token);
+        return send(record, service);
+    }
+
+    /**
+     * @return false only if Slack was unavailable for one of the rooms, so the record is kept for a later attempt;
+     * rooms that rejected the notification are dropped, sending it again won't help
+     */
+    static boolean send(OutboxRecord record, SlackService service) {
+        JSONArray attachments = record.getAttachments() != null ? JSONArray.fromObject(record.getAttachments()) : new JSONArray();
+        boolean unavailable = false;
+        for (SlackPostResult result : service.publishWithResults(record.getMessage(), attachments, record.getColor())) {
+            if (result.getStatus() == SlackPostResult.Status.UNAVAILABLE) {
+                unavailable = true;
+            } else if (result.getStatus() == SlackPostResult.Status.REJECTED) {
+                logger.warning("Dropping Slack notification to " + record.getRoom() + ", Slack rejected it: "
+                        + result.getError());
+            }
+        }
+        return !unavailable;
+    }
+}
@@ -14,6 +14,7 @@ import hudson.model.TaskListener;
 import hudson.security.ACL;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Level;
@@ -23,6 +24,7 @@ import jenkins.model.Jenkins;
 import jenkins.plugins.slack.CredentialsObtainer;
 import jenkins.plugins.slack.Messages;
 import jenkins.plugins.slack.SlackNotifier;
+import jenkins.plugins.slack.SlackPostResult;
 import jenkins.plugins.slack.SlackService;
 import jenkins.plugins.slack.StandardSlackService;
 import net.sf.json.JSON;
@@ -265,7 +267,7 @@ public class SlackSendStep extends Step {
 
             SlackService slackService = getSlackService(
                     baseUrl, teamDomain, botUser, channel, step.replyBroadcast, populatedToken);
-            final boolean publishSuccess;
+            final List<SlackPostResult> results;
             if (step.attachments != null) {
                 JSONArray jsonArray = getAttachmentsAsJSONArray();
                 for (Object object : jsonArray) {
@@ -276,17 +278,21 @@ public class SlackSendStep extends Step {
                         }
                     }
                 }
-                publishSuccess = slackService.publish(step.message, jsonArray, color);
+                results = slackService.publishWithResults(step.message, jsonArray, color);
             } else if (step.message != null) {
-                publishSuccess = slackService.publish(step.message, color);
+                results = slackService.publishWithResults(step.message, color);
             } else {
                 listener.error(Messages
                         .notificationFailedWithException(new IllegalArgumentException("No message or attachments provided")));
                 return null;
             }
+            boolean publishSuccess = !results.isEmpty();
+            for (SlackPostResult result : results) {
+                publishSuccess &= result.isDelivered();
+            }
             SlackResponse response = null;
             if (publishSuccess) {
-                String responseString = slackService.getResponseString();
+                String responseString = results.get(results.size() - 1).getResponseBody();
                 if (responseString != null) {
                     try {
                         org.json.JSONObject result = new org.json.JSONObject(responseString);
@@ -24,6 +24,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -193,4 +194,23 @@ public class ActiveNotifierTest extends TestCase {
 
         verify(slack).publish("build status message", "good");
     }
+
+    @Test
+    public void previousNonAbortedBuildIsLookedUpOncePerBuild() {
+        FreeStyleProject project = mock(FreeStyleProject.class);
+        FreeStyleBuild build = mock(FreeStyleBuild.class);
+        FreeStyleBuild aborted = mock(FreeStyleBuild.class);
+        FreeStyleBuild failed = mock(FreeStyleBuild.class);
+        when(build.getParent()).thenReturn(project);
+        when(project.getLastBuild()).thenReturn(build);
+        when(build.getPreviousCompletedBuild()).thenReturn(aborted);
+        when(aborted.getResult()).thenReturn(Result.ABORTED);
+        when(aborted.getPreviousCompletedBuild()).thenReturn(failed);
+        when(failed.getResult()).thenReturn(Result.FAILURE);
+
+        assertSame(failed, freeStyleActiveNotifer.getPreviousNonAbortedBuild(build));
+        assertSame(failed, freeStyleActiveNotifer.getPreviousNonAbortedBuild(build));
+
+        verify(aborted, times(1)).getPreviousCompletedBuild();
+    }
 }
@@ -0,0 +1,98 @@
+package jenkins.plugins.slack;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BuildStreakTest {
+
+    @Test
+    public void tracksTheLastBuildThatWasNotAborted() {
+        BuildStreak streak = new BuildStreak();
+        streak.record(1, Result.SUCCESS, 100);
+        streak.record(2, Result.UNSTABLE, 200);
+        streak.record(3, Result.ABORTED, 300);
+
+        assertEquals(2, streak.getLastNonAbortedNumber());
+        assertEquals(Result.UNSTABLE, streak.getLastNonAbortedResult());
+        assertTrue(streak.hasSucceeded());
+    }
+
+    @Test
+    public void streakStartsWithTheFirstBuildAfterTheLastSuccess() {
+        BuildStreak streak = new BuildStreak();
+        streak.record(1, Result.SUCCESS, 100);
+        streak.record(2, Result.FAILURE, 200);
+        streak.record(3, Result.FAILURE, 300);
+
+        assertEquals(200, streak.getStreakStartEndMillis());
+
+        streak.record(4, Result.SUCCESS, 400);
+
+        assertEquals(0, streak.getStreakStartEndMillis());
+    }
+
+    @Test
+    public void buildsCompletingOutOfOrderKeepTheEarliestStreakStart() {
+        BuildStreak streak = new BuildStreak();
+        streak.record(1, Result.SUCCESS, 100);
+        streak.record(3, Result.FAILURE, 300);
+        streak.record(2, Result.FAILURE, 350);
+
+        assertEquals(350, streak.getStreakStartEndMillis());
+        assertEquals(3, streak.getLastNonAbortedNumber());
+    }
+
+    @Test
+    public void failuresWithoutAnyPreviousSuccess() {
+        BuildStreak streak = new BuildStreak();
+        streak.record(1, Result.FAILURE, 100);
+
+        assertFalse(streak.hasSucceeded());
+        assertEquals(Result.FAILURE, streak.getLastNonAbortedResult());
+    }
+
+    @Test
+    public void onlyEndsBeforeTheBuildAfterTheLastCompletedOne() {
+        BuildStreak streak = new BuildStreak();
+        streak.record(5, Result.SUCCESS, 100);
+
+        assertTrue(streak.endsBefore(build(6, build(5, null))));
+        assertFalse(streak.endsBefore(build(5, build(4, null))));
+        assertFalse(streak.endsBefore(build(1, null)));
+    }
+
+    @Test
+    public void isNotTrustedAfterABuildWasSkipped() {
+        BuildStreak streak = new BuildStreak();
+        streak.record(5, Result.FAILURE, 100);
+        AbstractBuild unrecorded = build(6, build(5, null));
+
+        assertFalse(streak.endsBefore(build(7, unrecorded)));
+    }
+
+    @Test
+    public void noRecordForJobsWithoutADirectory() {
+        AbstractBuild build = mock(AbstractBuild.class);
+        when(build.getParent()).thenReturn(mock(AbstractProject.class));
+
+        BuildStreak.completed(build);
+
+        assertNull(BuildStreak.before(build));
+    }
+
+    private static AbstractBuild build(int number, AbstractBuild previous) {
+        AbstractBuild build = mock(AbstractBuild.class);
+        when(build.getNumber()).thenReturn(number);
+        when(build.getPreviousBuild()).thenReturn(previous);
+        return build;
+    }
+}
@@ -0,0 +1,100 @@
+package jenkins.plugins.slack;
+
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+import hudson.scm.ChangeLogSet.AffectedFile;
+import hudson.scm.ChangeLogSet.Entry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChangeSetSummaryTest {
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    @After
+    public void resetLimits() {
+        ChangeSetSummary.configure(0, 0);
+    }
+
+    @Test
+    public void emptyChangeSet() {
+        assertTrue(summarize(CommitInfoChoice.AUTHORS).isEmpty());
+    }
+
+    @Test
+    public void listsAuthorsOnceInOrderOfTheirFirstChange() {
+        addEntry("bob", "Fix build", 2);
+        addEntry("alice", "Add feature", 3);
+        addEntry("bob", "Update docs", 1);
+
+        ChangeSetSummary summary = summarize(null);
+
+        assertEquals("bob, alice", summary.getAuthorList());
+        assertEquals(6, summary.getFileCount());
+        assertEquals(3, summary.getEntryCount());
+    }
+
+    @Test
+    public void listsCommitsAsConfigured() {
+        addEntry("bob", "Fix build", 0);
+        addEntry("alice", "Add feature", 0);
+
+        assertEquals("Fix build [bob]\n- Add feature [alice]",
+                summarize(CommitInfoChoice.AUTHORS_AND_TITLES).getCommitList());
+    }
+
+    @Test
+    public void stopsAtTheConfiguredLimits() {
+        ChangeSetSummary.configure(2, 3);
+        for (int i = 0; i < 1000; i++) {
+            addEntry("dev" + (i % 5), "Commit " + i, 1);
+        }
+
+        ChangeSetSummary summary = summarize(CommitInfoChoice.AUTHORS_AND_TITLES);
+
+        assertEquals("dev0, dev1, +3 more", summary.getAuthorList());
+        assertEquals("Commit 0 [dev0]\n- Commit 1 [dev1]\n- Commit 2 [dev2]\n- +997 more", summary.getCommitList());
+        assertEquals(1000, summary.getFileCount());
+    }
+
+    @Test
+    public void countsLeftOutAuthorsOnlyUpToABound() {
+        ChangeSetSummary.configure(2, 1);
+        for (int i = 0; i < ChangeSetSummary.MAX_COUNTED_AUTHORS * 3; i++) {
+            addEntry("dev" + i, "Commit " + i, 0);
+        }
+
+        ChangeSetSummary summary = summarize(CommitInfoChoice.AUTHORS);
+
+        assertEquals("dev0, dev1, +" + ChangeSetSummary.MAX_COUNTED_AUTHORS + " or more", summary.getAuthorList());
+    }
+
+    private void addEntry(String author, String msg, int files) {
+        User user = mock(User.class);
+        when(user.getDisplayName()).thenReturn(author);
+        Entry entry = mock(Entry.class);
+        when(entry.getAuthor()).thenReturn(user);
+        when(entry.getMsg()).thenReturn(msg);
+        List<AffectedFile> affectedFiles = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            affectedFiles.add(mock(AffectedFile.class));
+        }
+        doReturn(affectedFiles).when(entry).getAffectedFiles();
+        entries.add(entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeSetSummary summarize(CommitInfoChoice commitInfoChoice) {
+        ChangeLogSet changeSet = mock(ChangeLogSet.class);
+        when(changeSet.iterator()).thenAnswer(invocation -> entries.iterator());
+        return ChangeSetSummary.of(changeSet, commitInfoChoice);
+    }
+}
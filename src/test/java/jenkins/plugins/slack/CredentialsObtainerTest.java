@@ -0,0 +1,58 @@
+package jenkins.plugins.slack;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import hudson.util.Secret;
+import java.io.IOException;
+import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CredentialsObtainerTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void updatedCredentialIsPickedUp() throws IOException {
+        setCredential("slack-token", "first");
+        assertEquals("first", CredentialsObtainer.getTokenToUse("slack-token", null, null));
+
+        setCredential("slack-token", "second");
+        assertEquals("second", CredentialsObtainer.getTokenToUse("slack-token", null, null));
+    }
+
+    @Test
+    public void missingCredentialIsNotCached() throws IOException {
+        assertNull(CredentialsObtainer.lookupCredentials("added-later"));
+
+        setCredential("added-later", "token");
+        assertEquals("token", CredentialsObtainer.lookupCredentials("added-later").getSecret().getPlainText());
+    }
+
+    @Test
+    public void cacheIsBounded() throws IOException {
+        setCredential("slack-token", "token");
+        for (int i = 0; i < CredentialsObtainer.MAX_ENTRIES + 10; i++) {
+            j.createFreeStyleProject("job" + i);
+        }
+
+        for (int i = 0; i < CredentialsObtainer.MAX_ENTRIES + 10; i++) {
+            assertEquals("token", CredentialsObtainer.getTokenToUse("slack-token", j.jenkins.getItem("job" + i), null));
+        }
+
+        assertEquals(CredentialsObtainer.MAX_ENTRIES, CredentialsObtainer.cacheSize());
+    }
+
+    private static void setCredential(String id, String secret) throws IOException {
+        SystemCredentialsProvider provider = SystemCredentialsProvider.getInstance();
+        provider.getCredentials().removeIf(credentials -> credentials instanceof StringCredentialsImpl
+                && ((StringCredentialsImpl) credentials).getId().equals(id));
+        provider.getCredentials().add(new StringCredentialsImpl(CredentialsScope.GLOBAL, id, "", Secret.fromString(secret)));
+        provider.save();
+    }
+}
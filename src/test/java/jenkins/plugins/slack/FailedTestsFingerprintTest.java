@@ -0,0 +1,100 @@
+package jenkins.plugins.slack;
+
+import hudson.model.AbstractBuild;
+import hudson.tasks.junit.TestResultAction;
+import hudson.tasks.test.TestResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FailedTestsFingerprintTest {
+
+    @Test
+    public void sameFailuresInAnyOrderMatch() {
+        FailedTestsFingerprint first = FailedTestsFingerprint.create(3, failures("a.T.one", "a.T.two", "b.T.one"));
+        FailedTestsFingerprint second = FailedTestsFingerprint.create(3, failures("b.T.one", "a.T.one", "a.T.two"));
+
+        assertTrue(first.hasSameFailuresAs(second));
+    }
+
+    @Test
+    public void duplicateIdsCountOnce() {
+        FailedTestsFingerprint first = FailedTestsFingerprint.create(2, failures("a.T.one", "a.T.one"));
+        FailedTestsFingerprint second = FailedTestsFingerprint.create(1, failures("a.T.one"));
+
+        assertTrue(first.hasSameFailuresAs(second));
+        assertEquals(2, first.getFailCount());
+    }
+
+    @Test
+    public void differentFailuresDontMatch() {
+        FailedTestsFingerprint first = FailedTestsFingerprint.create(2, failures("a.T.one", "a.T.two"));
+        FailedTestsFingerprint second = FailedTestsFingerprint.create(2, failures("a.T.one", "a.T.three"));
+
+        assertFalse(first.hasSameFailuresAs(second));
+    }
+
+    @Test
+    public void isComputedOnceAndAttachedToTheBuild() {
+        AbstractBuild build = buildWithFailures("a.T.one");
+
+        FailedTestsFingerprint fingerprint = FailedTestsFingerprint.attachTo(build);
+
+        verify(build).addAction(fingerprint);
+        when(build.getAction(FailedTestsFingerprint.class)).thenReturn(fingerprint);
+        assertSame(fingerprint, FailedTestsFingerprint.attachTo(build));
+        verify(build).addAction(any(FailedTestsFingerprint.class));
+        verify(build.getAction(TestResultAction.class)).getFailedTests();
+    }
+
+    @Test
+    public void otherBuildsAreNotChanged() {
+        AbstractBuild build = buildWithFailures("a.T.one");
+
+        FailedTestsFingerprint fingerprint = FailedTestsFingerprint.of(build);
+
+        assertEquals(1, fingerprint.getFailCount());
+        verify(build, never()).addAction(any(FailedTestsFingerprint.class));
+        verify(build, never()).addOrReplaceAction(any(FailedTestsFingerprint.class));
+    }
+
+    @Test
+    public void buildsWithoutTestReportHaveNoFingerprint() {
+        AbstractBuild build = mock(AbstractBuild.class);
+
+        assertNull(FailedTestsFingerprint.attachTo(build));
+        verify(build, never()).addAction(any(FailedTestsFingerprint.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AbstractBuild buildWithFailures(String... ids) {
+        AbstractBuild build = mock(AbstractBuild.class);
+        TestResultAction action = mock(TestResultAction.class);
+        when(action.getFailCount()).thenReturn(ids.length);
+        when(action.getFailedTests()).thenReturn((List) failures(ids));
+        when(build.getAction(TestResultAction.class)).thenReturn(action);
+        return build;
+    }
+
+    private static List<TestResult> failures(String... ids) {
+        List<TestResult> failures = new ArrayList<>();
+        for (String id : Arrays.asList(ids)) {
+            TestResult result = mock(TestResult.class);
+            when(result.getId()).thenReturn(id);
+            failures.add(result);
+        }
+        return failures;
+    }
+}
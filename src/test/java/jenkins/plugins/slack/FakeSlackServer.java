@@ -0,0 +1,254 @@
+package jenkins.plugins.slack;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+
+/**
+ * Embedded stand-in for the Slack API, serving chat.postMessage and incoming webhooks on a local port.
+ *
+ * Latency, the share of requests failing with a server error and a workspace wide rate limit answered with 429
+ * and Retry-After can be configured, and the server counts requests, failures and the connections they came in on.
+ */
+public class FakeSlackServer {
+
+    public static final String POST_MESSAGE_PATH = "/api/chat.postMessage";
+    public static final String WEBHOOK_PATH = "/services/hooks/";
+
+    private final Server server = new Server();
+    private final ServerConnector connector = new ServerConnector(server);
+
+    private volatile long minLatencyMillis;
+    private volatile long maxLatencyMillis;
+    private volatile double errorRate;
+    private volatile int rateLimitPerSecond;
+    private volatile int retryAfterSeconds = 1;
+
+    private long rateLimitWindow;
+    private int requestsInWindow;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger delivered = new AtomicInteger();
+    private final AtomicInteger serverErrors = new AtomicInteger();
+    private final AtomicInteger rateLimited = new AtomicInteger();
+    private final AtomicLong timestamps = new AtomicLong();
+    private final Set<String> connections = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public FakeSlackServer() {
+        connector.setHost("127.0.0.1");
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+                baseRequest.setHandled(true);
+                FakeSlackServer.this.handle(target, request, response);
+            }
+        });
+    }
+
+    public FakeSlackServer start() throws Exception {
+        server.start();
+        return this;
+    }
+
+    public void stop() throws Exception {
+        server.stop();
+    }
+
+    /**
+     * @return the base URL of the server, without a trailing slash
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + connector.getLocalPort();
+    }
+
+    /**
+     * @return the base URL to configure so webhook posts reach this server
+     */
+    public String getWebhookBaseUrl() {
+        return getUrl() + WEBHOOK_PATH;
+    }
+
+    /**
+     * Builds a pooled client that sends every request to this server, whatever host its URI names.
+     * Bot user posts always go to slack.com, this is how they end up here.
+     */
+    public CloseableHttpClient newHttpClient(int maxConnections) {
+        HttpRoute route = new HttpRoute(new HttpHost("127.0.0.1", connector.getLocalPort(), "http"));
+        return HttpClients.custom()
+                .setRoutePlanner((host, request, context) -> route)
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .build();
+    }
+
+    /**
+     * Every request is answered after a random delay between the two bounds.
+     */
+    public FakeSlackServer setLatency(long minMillis, long maxMillis) {
+        this.minLatencyMillis = minMillis;
+        this.maxLatencyMillis = Math.max(minMillis, maxMillis);
+        return this;
+    }
+
+    /**
+     * @param errorRate share of the requests, between 0 and 1, answered with HTTP 500
+     */
+    public FakeSlackServer setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * @param requestsPerSecond requests accepted per second before answering 429, 0 for no limit
+     */
+    public FakeSlackServer setRateLimit(int requestsPerSecond, int retryAfterSeconds) {
+        this.rateLimitPerSecond = requestsPerSecond;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public int getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public int getServerErrorCount() {
+        return serverErrors.get();
+    }
+
+    public int getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    /**
+     * @return how many distinct client connections requests arrived on
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    private void handle(String target, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        requests.incrementAndGet();
+        connections.add(request.getRemoteAddr() + ":" + request.getRemotePort());
+        boolean postMessage = POST_MESSAGE_PATH.equals(target);
+        if (!postMessage && !target.startsWith(WEBHOOK_PATH)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!"POST".equals(request.getMethod())) {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+        sleepLatency();
+        if (!acquireRateLimit()) {
+            rateLimited.incrementAndGet();
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.sendError(429);
+            return;
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            serverErrors.incrementAndGet();
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        if (postMessage) {
+            handlePostMessage(request, response);
+        } else {
+            handleWebhook(request, response);
+        }
+    }
+
+    private void handlePostMessage(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        JSONObject reply = new JSONObject();
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            reply.put("ok", false);
+            reply.put("error", "not_authed");
+        } else {
+            try {
+                JSONObject payload = JSONObject.fromObject(IOUtils.toString(request.getReader()));
+                String channel = payload.optString("channel", "");
+                if (channel.isEmpty()) {
+                    reply.put("ok", false);
+                    reply.put("error", "channel_not_found");
+                } else {
+                    delivered.incrementAndGet();
+                    reply.put("ok", true);
+                    reply.put("channel", channel);
+                    reply.put("ts", nextTimestamp());
+                }
+            } catch (JSONException e) {
+                reply.put("ok", false);
+                reply.put("error", "invalid_json");
+            }
+        }
+        response.setContentType("application/json;charset=utf-8");
+        response.getWriter().write(reply.toString());
+    }
+
+    private void handleWebhook(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String payload = request.getParameter("payload");
+        response.setContentType("text/plain;charset=utf-8");
+        if (payload == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write("invalid_payload");
+            return;
+        }
+        delivered.incrementAndGet();
+        response.getWriter().write("ok");
+    }
+
+    private void sleepLatency() {
+        long max = maxLatencyMillis;
+        if (max <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(minLatencyMillis, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean acquireRateLimit() {
+        int limit = rateLimitPerSecond;
+        if (limit <= 0) {
+            return true;
+        }
+        long window = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        if (window != rateLimitWindow) {
+            rateLimitWindow = window;
+            requestsInWindow = 0;
+        }
+        return ++requestsInWindow <= limit;
+    }
+
+    private String nextTimestamp() {
+        long sequence = timestamps.incrementAndGet();
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        return seconds + "." + String.format("%06d", sequence % 1000000);
+    }
+}
@@ -70,4 +70,25 @@ public class MessageBuilderEscapeTest {
         String escaped = messageBuilder.escape(input);
         assertEquals(expected, escaped);
     }
+
+    @Test
+    public void testEscapeApostrophe() {
+        String input = "it's <a href=\"target\">Bob's build</a>";
+        String expected = "it's <target|Bob's build>";
+        assertEquals(expected, messageBuilder.escape(input));
+    }
+
+    @Test
+    public void testEscapeSpecialCharacters() {
+        String input = "a < b && c > d";
+        String expected = "a &lt; b &amp;&amp; c &gt; d";
+        assertEquals(expected, messageBuilder.escape(input));
+    }
+
+    @Test
+    public void testEscapeAnchorWithoutHref() {
+        String input = "<a name='target'>test</a>";
+        String expected = "&lt;a name='target'&gt;test&lt;/a&gt;";
+        assertEquals(expected, messageBuilder.escape(input));
+    }
 }
@@ -0,0 +1,103 @@
+package jenkins.plugins.slack;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.TestResult;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MessageBuilderFailedTestsTest {
+
+    private AbstractBuild build;
+    private AbstractTestResultAction action;
+    private final List<TestResult> failedTests = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        build = mock(AbstractBuild.class);
+        AbstractProject project = mock(AbstractProject.class);
+        when(build.getParent()).thenReturn(project);
+        when(build.getDisplayName()).thenReturn("#1");
+        when(project.getFullDisplayName()).thenReturn("project");
+        action = mock(AbstractTestResultAction.class);
+        when(action.getFailedTests()).thenReturn(failedTests);
+        when(build.getAction(AbstractTestResultAction.class)).thenReturn(action);
+    }
+
+    @After
+    public void resetLimits() {
+        FailedTestsLimits.configure(0, 0, false);
+    }
+
+    @Test
+    public void listsEveryTestWithinTheLimits() {
+        addFailures("com.example.OrderTest", 3);
+
+        assertEquals("project - #1 \n3 Failed Tests:\n"
+                + "\tOrderTest.test0 after 1 sec\n"
+                + "\tOrderTest.test1 after 1 sec\n"
+                + "\tOrderTest.test2 after 1 sec\n", appendFailedTests());
+    }
+
+    @Test
+    public void stopsAtTheMaximumNumberOfTests() {
+        FailedTestsLimits.configure(2, 0, false);
+        addFailures("com.example.OrderTest", 5000);
+
+        assertEquals("project - #1 \n5000 Failed Tests:\n"
+                + "\tOrderTest.test0 after 1 sec\n"
+                + "\tOrderTest.test1 after 1 sec\n"
+                + "\u2026and 4998 more\n", appendFailedTests());
+    }
+
+    @Test
+    public void stopsAtTheMaximumLength() {
+        FailedTestsLimits.configure(0, 60, false);
+        addFailures("com.example.OrderTest", 5000);
+
+        String message = appendFailedTests();
+
+        assertTrue(message, message.endsWith("\tOrderTest.test1 after 1 sec\n\u2026and 4998 more\n"));
+    }
+
+    @Test
+    public void groupsFailuresByClass() {
+        FailedTestsLimits.configure(3, 0, true);
+        addFailures("com.example.OrderTest", 2);
+        addFailures("com.example.PaymentTest", 4);
+        addFailures("com.example.ShippingTest", 1);
+        addFailures("com.example.TaxTest", 1);
+
+        assertEquals("project - #1 \n8 Failed Tests:\n"
+                + "\tOrderTest: 2 failed (test0, test1)\n"
+                + "\tPaymentTest: 4 failed (test0, \u2026)\n"
+                + "\tShippingTest: 1 failed\n"
+                + "\u2026and 1 more\n", appendFailedTests());
+    }
+
+    private void addFailures(String className, int count) {
+        for (int i = 0; i < count; i++) {
+            TestResult test = mock(TestResult.class);
+            when(test.getFullDisplayName()).thenReturn(className + ".test" + i);
+            when(test.getDurationString()).thenReturn("1 sec");
+            failedTests.add(test);
+        }
+        when(action.getFailCount()).thenReturn(failedTests.size());
+    }
+
+    private String appendFailedTests() {
+        return new ActiveNotifier.MessageBuilder(mock(SlackNotifier.class), build, mock(BuildAwareLogger.class),
+                mock(TokenExpander.class)).appendFailedTests().toString();
+    }
+}
@@ -0,0 +1,51 @@
+package jenkins.plugins.slack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MessageTemplateTest {
+
+    @Test
+    public void textWithoutTokensIsPlain() {
+        MessageTemplate template = MessageTemplate.parse("Deployed to production", name -> true);
+
+        assertTrue(template.isPlain());
+        assertEquals(Collections.emptyList(), template.getMacroNames());
+    }
+
+    @Test
+    public void collectsEachMacroNameOnce() {
+        MessageTemplate template = MessageTemplate.parse(
+                "$BUILD_NUMBER of ${PROJECT_NAME} by ${CHANGES, format=\"%a\"}, again $BUILD_NUMBER", name -> true);
+
+        assertFalse(template.isPlain());
+        assertEquals(Arrays.asList("BUILD_NUMBER", "PROJECT_NAME", "CHANGES"), template.getMacroNames());
+        assertTrue(template.isOnlyTokenMacros());
+    }
+
+    @Test
+    public void environmentVariablesNeedTheFullExpansion() {
+        MessageTemplate template = MessageTemplate.parse("$BUILD_NUMBER on $NODE_NAME",
+                name -> name.equals("BUILD_NUMBER"));
+
+        assertFalse(template.isOnlyTokenMacros());
+    }
+
+    @Test
+    public void escapedDollarSignsNeedTheFullExpansion() {
+        MessageTemplate template = MessageTemplate.parse("Costs $$5 in $BUILD_NUMBER", name -> true);
+
+        assertFalse(template.isOnlyTokenMacros());
+    }
+
+    @Test
+    public void templatesAreParsedOnce() {
+        assertSame(MessageTemplate.of("No tokens here"), MessageTemplate.of("No tokens here"));
+    }
+}
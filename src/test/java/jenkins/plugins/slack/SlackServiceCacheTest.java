@@ -0,0 +1,29 @@
+package jenkins.plugins.slack;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SlackServiceCacheTest {
+
+    @Test
+    public void sameConfigurationSharesAService() {
+        StandardSlackService first = SlackServiceCache.get("", "domain", false, "#shared", "token", false);
+
+        assertSame(first, SlackServiceCache.get("", "domain", false, "#shared", "token", false));
+        assertNotSame(first, SlackServiceCache.get("", "domain", false, "#shared", "other-token", false));
+        assertNotSame(first, SlackServiceCache.get("", "domain", true, "#shared", "token", false));
+        assertNotSame(first, SlackServiceCache.get("", "domain", false, "#shared,#other", "token", false));
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        for (int i = 0; i <= SlackServiceCache.MAX_ENTRIES; i++) {
+            SlackServiceCache.get("", "domain", false, "#room" + i, "token", false);
+        }
+
+        assertTrue(SlackServiceCache.size() <= SlackServiceCache.MAX_ENTRIES);
+    }
+}
@@ -0,0 +1,188 @@
+package jenkins.plugins.slack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Drives {@link StandardSlackService} against a {@link FakeSlackServer} from many threads and prints the throughput
+ * and latency percentiles. Only runs when asked for, with the plugin's own rate limits raised out of the way:
+ *
+ * <pre>
+ * mvn test -Dtest=StandardSlackServiceLoadTest -Dslack.loadTest=true \
+ *     -Djenkins.plugins.slack.http.SlackRateLimiter.workspacePerMinute=1000000 \
+ *     -Djenkins.plugins.slack.http.SlackRateLimiter.workspaceBurst=1000000 \
+ *     -Djenkins.plugins.slack.http.SlackRateLimiter.channelPerSecond=1000000 \
+ *     -Djenkins.plugins.slack.http.SlackRateLimiter.channelBurst=1000000
+ * </pre>
+ *
+ * {@code slack.loadTest.messages}, {@code slack.loadTest.threads} and {@code slack.loadTest.latencyMillis}
+ * change the size of the run.
+ */
+public class StandardSlackServiceLoadTest {
+
+    private static final int MESSAGES = Integer.getInteger("slack.loadTest.messages", 3000);
+    private static final int THREADS = Integer.getInteger("slack.loadTest.threads", 16);
+    private static final int LATENCY_MILLIS = Integer.getInteger("slack.loadTest.latencyMillis", 50);
+    private static final int CHANNELS = 50;
+    private static final int MAX_CONNECTIONS = 20;
+
+    private FakeSlackServer server;
+
+    @BeforeClass
+    public static void onlyWhenRequested() {
+        assumeTrue(Boolean.getBoolean("slack.loadTest"));
+    }
+
+    @Before
+    public void startServer() throws Exception {
+        server = new FakeSlackServer().setLatency(LATENCY_MILLIS / 2, LATENCY_MILLIS * 3 / 2).start();
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void webhookThroughput() throws Exception {
+        List<SlackService> services = new ArrayList<>(CHANNELS);
+        for (int i = 0; i < CHANNELS; i++) {
+            services.add(new StandardSlackService(server.getWebhookBaseUrl(), "example", false, "#load-" + i, false,
+                    "T000/B000/webhook"));
+        }
+
+        Report report = run("webhook", services);
+
+        assertEquals(MESSAGES, report.delivered);
+        assertEquals(MESSAGES, server.getDeliveredCount());
+        assertTrue("connections should be reused, saw " + server.getConnectionCount(),
+                server.getConnectionCount() <= THREADS);
+    }
+
+    @Test
+    public void botUserThroughput() throws Exception {
+        try (CloseableHttpClient client = server.newHttpClient(MAX_CONNECTIONS)) {
+            Report report = run("bot user", botUserServices(client, "xoxb-load"));
+
+            assertEquals(MESSAGES, report.delivered);
+            assertTrue("connections should be reused, saw " + server.getConnectionCount(),
+                    server.getConnectionCount() <= MAX_CONNECTIONS);
+        }
+    }
+
+    @Test
+    public void throughputWithServerErrorsAndRateLimits() throws Exception {
+        server.setErrorRate(0.02).setRateLimit(MESSAGES / 20, 1);
+        try (CloseableHttpClient client = server.newHttpClient(MAX_CONNECTIONS)) {
+            Report report = run("bot user, 2% errors, rate limited", botUserServices(client, "xoxb-errors"));
+
+            assertTrue("most messages should make it through retries, delivered " + report.delivered,
+                    report.delivered >= MESSAGES * 0.95);
+            System.out.printf("  server errors %d, rate limited %d%n",
+                    server.getServerErrorCount(), server.getRateLimitedCount());
+        }
+    }
+
+    /**
+     * Sends the messages from {@link #THREADS} threads, message {@code i} through service {@code i % services.size()}.
+     */
+    private Report run(String name, List<SlackService> services) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long[] latencies = new long[MESSAGES];
+        AtomicInteger delivered = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(MESSAGES);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < MESSAGES; i++) {
+                final int message = i;
+                futures.add(executor.submit(() -> {
+                    long sent = System.nanoTime();
+                    List<SlackPostResult> results = services.get(message % services.size())
+                            .publishWithResults("load test message " + message, "good");
+                    latencies[message] = System.nanoTime() - sent;
+                    if (results.get(0).isDelivered()) {
+                        delivered.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Report report = new Report(delivered.get(), elapsed, latencies);
+        System.out.printf("%s: %d messages in %d ms, %.0f messages/minute, p50 %d ms, p99 %d ms, max %d ms, "
+                        + "%d connections%n",
+                name, MESSAGES, TimeUnit.NANOSECONDS.toMillis(elapsed), report.perMinute(),
+                report.percentileMillis(50), report.percentileMillis(99), report.percentileMillis(100),
+                server.getConnectionCount());
+        return report;
+    }
+
+    private static List<SlackService> botUserServices(CloseableHttpClient client, String token) {
+        List<SlackService> services = new ArrayList<>(CHANNELS);
+        for (int i = 0; i < CHANNELS; i++) {
+            services.add(new LocalSlackService(client, "#load-" + i, token));
+        }
+        return services;
+    }
+
+    /**
+     * Posts as a bot user through the given client, which takes the posts to the fake server.
+     */
+    private static final class LocalSlackService extends StandardSlackService {
+
+        private final CloseableHttpClient client;
+
+        private LocalSlackService(CloseableHttpClient client, String roomId, String token) {
+            super("", "example", true, roomId, false, token);
+            this.client = client;
+        }
+
+        @Override
+        protected CloseableHttpClient getHttpClient() {
+            return client;
+        }
+    }
+
+    private static final class Report {
+        private final int delivered;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        private Report(int delivered, long elapsedNanos, long[] latencies) {
+            this.delivered = delivered;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+        }
+
+        private double perMinute() {
+            return delivered * (double) TimeUnit.MINUTES.toNanos(1) / elapsedNanos;
+        }
+
+        private long percentileMillis(int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sortedLatencies[Math.max(index, 0)]);
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package jenkins.plugins.slack;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.plugins.slack.http.SlackRateLimiter;
+
 public class StandardSlackServiceStub extends StandardSlackService {
 
     private CloseableHttpClientStub httpClientStub;
+    private final AtomicLong sleptNanos = new AtomicLong();
 
     public StandardSlackServiceStub(String baseUrl, String teamDomain, boolean botUser, String roomId, String populatedToken) {
         super(baseUrl, teamDomain, botUser, roomId, false, populatedToken);
+        setRateLimiter(new SlackRateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
     }
 
     @Override
@@ -16,4 +22,13 @@ public class StandardSlackServiceStub extends StandardSlackService {
     public void setHttpClient(CloseableHttpClientStub httpClientStub) {
         this.httpClientStub = httpClientStub;
     }
+
+    @Override
+    protected void sleep(long duration, TimeUnit unit) {
+        sleptNanos.addAndGet(unit.toNanos(duration));
+    }
+
+    public long getSleptMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(sleptNanos.get());
+    }
 }
@@ -1,6 +1,17 @@
 package jenkins.plugins.slack;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.dispatch.NotificationDispatcher;
+import jenkins.plugins.slack.http.RetryPolicy;
+import jenkins.plugins.slack.http.SlackRateLimiter;
+import net.sf.json.JSONObject;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -13,7 +24,7 @@ public class StandardSlackServiceTest {
      */
     @Test
     public void publishWithBadHostShouldNotRethrowExceptions() {
-        StandardSlackService service = new StandardSlackService("", "foo", false, "#general", false, "token");
+        StandardSlackService service = withoutDelays("foo");
         service.setHost("hostvaluethatwillcausepublishtofail");
         service.publish("message");
     }
@@ -23,7 +34,7 @@ public class StandardSlackServiceTest {
      */
     @Test
     public void invalidTeamDomainShouldFail() {
-        StandardSlackService service = new StandardSlackService("", "my", false, "#general", false, "token");
+        StandardSlackService service = withoutDelays("my");
         service.publish("message");
     }
 
@@ -32,7 +43,7 @@ public class StandardSlackServiceTest {
      */
     @Test
     public void invalidTokenShouldFail() {
-        StandardSlackService service = new StandardSlackService("", "tinyspeck", false, "#general", false, "token");
+        StandardSlackService service = withoutDelays("tinyspeck");
         service.publish("message");
     }
 
@@ -101,6 +112,50 @@ public class StandardSlackServiceTest {
         assertFalse(service.publish("message"));
     }
 
+    @Test
+    public void serverErrorIsRetried() {
+        StandardSlackServiceStub service = new StandardSlackServiceStub("", "domain", false, "#room1", "token");
+        CloseableHttpClientStub httpClientStub = new CloseableHttpClientStub();
+        httpClientStub.setHttpStatus(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        service.setHttpClient(httpClientStub);
+        assertFalse(service.publish("message"));
+        assertEquals(RetryPolicy.MAX_ATTEMPTS, httpClientStub.getNumberOfCallsToExecuteMethod());
+        assertTrue(service.getSleptMillis() > 0);
+    }
+
+    @Test
+    public void synchronousPublishDoesNotWaitLongForTheRateLimit() {
+        StandardSlackServiceStub service = new StandardSlackServiceStub("", "domain", false, "#room1", "token");
+        service.setRateLimiter(new SlackRateLimiter(1, 1, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        CloseableHttpClientStub httpClientStub = new CloseableHttpClientStub();
+        httpClientStub.setHttpStatus(HttpStatus.SC_OK);
+        service.setHttpClient(httpClientStub);
+        assertTrue(service.publish("message"));
+
+        List<SlackPostResult> results = service.publishWithResults("message", "good");
+
+        assertEquals(SlackPostResult.Status.UNAVAILABLE, results.get(0).getStatus());
+        assertEquals(1, httpClientStub.getNumberOfCallsToExecuteMethod());
+        assertEquals(0, service.getSleptMillis());
+    }
+
+    @Test
+    public void queuedPublishWaitsForTheRateLimit() throws Exception {
+        StandardSlackServiceStub service = new StandardSlackServiceStub("", "domain", false, "#room1", "token");
+        service.setRateLimiter(new SlackRateLimiter(1, 1, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        CloseableHttpClientStub httpClientStub = new CloseableHttpClientStub();
+        httpClientStub.setHttpStatus(HttpStatus.SC_OK);
+        service.setHttpClient(httpClientStub);
+        assertTrue(service.publish("message"));
+
+        CompletableFuture<Boolean> published = new CompletableFuture<>();
+        NotificationDispatcher.dispatch(() -> published.complete(service.publish("message")));
+
+        assertTrue(published.get(10, TimeUnit.SECONDS));
+        assertEquals(2, httpClientStub.getNumberOfCallsToExecuteMethod());
+        assertTrue(service.getSleptMillis() > TimeUnit.SECONDS.toMillis(55));
+    }
+
     @Test
     public void publishToEmptyRoomReturnsTrue() {
         StandardSlackServiceStub service = new StandardSlackServiceStub("", "domain", false, "", "token");
@@ -137,6 +192,51 @@ public class StandardSlackServiceTest {
         httpClientStub.setHttpStatus(HttpStatus.SC_OK);
         service.setHttpClient(httpClientStub);
         service.publish("message");
-        assertTrue(httpClientStub.getLastRequest().getURI().toString().contains(populatedToken));
+        assertEquals("Bearer " + populatedToken, httpClientStub.getLastRequest().getFirstHeader("Authorization").getValue());
+        assertFalse(httpClientStub.getLastRequest().getURI().toString().contains(populatedToken));
+    }
+
+    @Test
+    public void botUserMessageIsSentAsJson() throws Exception {
+        final StandardSlackServiceStub service = new StandardSlackServiceStub("", "domain", true, "#room1:1528317530", "token");
+        final CloseableHttpClientStub httpClientStub = new CloseableHttpClientStub();
+        httpClientStub.setHttpStatus(HttpStatus.SC_OK);
+        service.setHttpClient(httpClientStub);
+        service.publish("message");
+
+        HttpEntity entity = ((HttpPost) httpClientStub.getLastRequest()).getEntity();
+        assertEquals(ContentType.APPLICATION_JSON.toString(), entity.getContentType().getValue());
+        JSONObject json = JSONObject.fromObject(EntityUtils.toString(entity));
+        assertEquals("room1", json.getString("channel"));
+        assertEquals("1528317530", json.getString("thread_ts"));
+        assertEquals("message", json.getJSONArray("attachments").getJSONObject(0).getString("fallback"));
+    }
+
+    @Test
+    public void publishWithResultsReportsEveryRoom() {
+        StandardSlackServiceStub service = new StandardSlackServiceStub("", "domain", false, "#room1,#room2", "token");
+        CloseableHttpClientStub httpClientStub = new CloseableHttpClientStub();
+        httpClientStub.setHttpStatus(HttpStatus.SC_OK);
+        httpClientStub.setFailAlternateResponses(true);
+        service.setHttpClient(httpClientStub);
+
+        List<SlackPostResult> results = service.publishWithResults("message", "good");
+
+        assertEquals(2, results.size());
+        assertEquals("#room1", results.get(0).getRoom());
+        assertTrue(results.get(0).isDelivered());
+        assertEquals("#room2", results.get(1).getRoom());
+        assertEquals(SlackPostResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals(HttpStatus.SC_NOT_FOUND, results.get(1).getStatusCode());
+    }
+
+    private static StandardSlackService withoutDelays(String teamDomain) {
+        StandardSlackService service = new StandardSlackService("", teamDomain, false, "#general", false, "token") {
+            @Override
+            protected void sleep(long duration, TimeUnit unit) {
+            }
+        };
+        service.setRateLimiter(new SlackRateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        return service;
     }
 }
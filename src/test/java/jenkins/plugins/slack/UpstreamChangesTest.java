@@ -0,0 +1,102 @@
+package jenkins.plugins.slack;
+
+import hudson.model.AbstractBuild;
+import hudson.model.Cause;
+import hudson.scm.ChangeLogSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UpstreamChangesTest {
+
+    private final Map<String, AbstractBuild<?, ?>> builds = new HashMap<>();
+    private final Map<String, Integer> lookups = new HashMap<>();
+
+    @Test
+    public void followsTheChainToTheFirstBuildWithChanges() {
+        AbstractBuild<?, ?> deploy = build("deploy", false, "test");
+        build("test", false, "compile");
+        AbstractBuild<?, ?> compile = build("compile", true, "checkout");
+        build("checkout", true);
+
+        assertEquals(Collections.singletonList(compile), resolve(deploy, 10, 50));
+    }
+
+    @Test
+    public void resolvesSharedUpstreamBuildsOnce() {
+        AbstractBuild<?, ?> release = build("release", false, "linux", "windows");
+        build("linux", false, "compile");
+        build("windows", false, "compile");
+        AbstractBuild<?, ?> compile = build("compile", true);
+
+        assertEquals(Collections.singletonList(compile), resolve(release, 10, 50));
+        assertEquals(Integer.valueOf(1), lookups.get("compile"));
+    }
+
+    @Test
+    public void stopsOnCyclesOfCauses() {
+        AbstractBuild<?, ?> a = build("a", false, "b");
+        build("b", false, "a");
+
+        assertEquals(Collections.emptyList(), resolve(a, 10, 50));
+        assertEquals(Integer.valueOf(1), lookups.get("b"));
+    }
+
+    @Test
+    public void stopsAtTheMaximumDepth() {
+        AbstractBuild<?, ?> first = build("job0", false, "job1");
+        for (int i = 1; i < 20; i++) {
+            build("job" + i, false, "job" + (i + 1));
+        }
+        build("job20", true);
+
+        assertEquals(Collections.emptyList(), resolve(first, 5, 50));
+        assertEquals(5, lookups.size());
+    }
+
+    @Test
+    public void stopsAtTheMaximumNumberOfUpstreamBuilds() {
+        String[] upstream = new String[100];
+        for (int i = 0; i < upstream.length; i++) {
+            upstream[i] = "job" + i;
+            build(upstream[i], true);
+        }
+        AbstractBuild<?, ?> fanIn = build("fan-in", false, upstream);
+
+        assertEquals(10, resolve(fanIn, 10, 10).size());
+        assertEquals(10, lookups.size());
+    }
+
+    private List<AbstractBuild<?, ?>> resolve(AbstractBuild<?, ?> build, int maxDepth, int maxBuilds) {
+        return new UpstreamChanges((project, number) -> {
+            lookups.merge(project, 1, Integer::sum);
+            return builds.get(project);
+        }, maxDepth, maxBuilds).resolve(build);
+    }
+
+    private AbstractBuild<?, ?> build(String project, boolean hasChanges, String... upstreamProjects) {
+        AbstractBuild<?, ?> build = mock(AbstractBuild.class);
+        when(build.getExternalizableId()).thenReturn(project + "#1");
+        ChangeLogSet changeSet = mock(ChangeLogSet.class);
+        when(changeSet.isEmptySet()).thenReturn(!hasChanges);
+        doReturn(changeSet).when(build).getChangeSet();
+        List<Cause> causes = new ArrayList<>();
+        for (String upstreamProject : upstreamProjects) {
+            Cause.UpstreamCause cause = mock(Cause.UpstreamCause.class);
+            when(cause.getUpstreamProject()).thenReturn(upstreamProject);
+            when(cause.getUpstreamBuild()).thenReturn(1);
+            causes.add(cause);
+        }
+        when(build.getCauses()).thenReturn(causes);
+        builds.put(project, build);
+        return build;
+    }
+}
@@ -2,15 +2,20 @@ package jenkins.plugins.slack.config;
 
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
 import hudson.ExtensionList;
 import hudson.Util;
 import hudson.security.ACL;
+import hudson.util.Secret;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import jenkins.model.Jenkins;
 import jenkins.plugins.slack.Messages;
 import jenkins.plugins.slack.SlackNotifier;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
+import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -18,6 +23,7 @@ import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.recipes.LocalData;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 
 @SuppressWarnings("deprecation")
@@ -50,6 +56,60 @@ public class GlobalCredentialMigratorTest {
         assertEquals(stringCredentials.getDescription(), Messages.migratedCredentialDescription());
     }
 
+    @Test
+    public void migratingTheSameTokenReusesTheCredential() {
+        GlobalCredentialMigrator migrator = new GlobalCredentialMigrator();
+        String first = migrator.migrate("shared-token").getId();
+
+        assertEquals(first, new GlobalCredentialMigrator().migrate("shared-token").getId());
+        assertNotEquals(first, migrator.migrate("other-token").getId());
+    }
+
+    @Test
+    public void indexIsSharedByTheMigrations() {
+        GlobalCredentialMigrator.invalidateIndex();
+        int builds = GlobalCredentialMigrator.getIndexBuilds();
+
+        String first = new GlobalCredentialMigrator().migrate("first-token").getId();
+        new GlobalCredentialMigrator().migrate("second-token");
+
+        assertEquals(first, new GlobalCredentialMigrator().migrate("first-token").getId());
+        assertEquals(builds + 1, GlobalCredentialMigrator.getIndexBuilds());
+    }
+
+    @Test
+    public void existingCredentialIsFound() throws IOException {
+        SystemCredentialsProvider provider = SystemCredentialsProvider.getInstance();
+        provider.getCredentials().add(new StringCredentialsImpl(CredentialsScope.GLOBAL, "existing", "",
+                Secret.fromString("existing-token")));
+        provider.save();
+
+        assertEquals("existing", new GlobalCredentialMigrator().migrate("existing-token").getId());
+    }
+
+    @Test
+    public void credentialWithAChangedSecretIsFound() throws IOException {
+        SystemCredentialsProvider provider = SystemCredentialsProvider.getInstance();
+        StringCredentials original = new StringCredentialsImpl(CredentialsScope.GLOBAL, "rotated", "",
+                Secret.fromString("old-token"));
+        provider.getCredentials().add(original);
+        provider.save();
+        assertEquals("rotated", new GlobalCredentialMigrator().migrate("old-token").getId());
+
+        provider.getCredentials().remove(original);
+        provider.getCredentials().add(new StringCredentialsImpl(CredentialsScope.GLOBAL, "rotated", "",
+                Secret.fromString("new-token")));
+        provider.save();
+
+        assertEquals("rotated", new GlobalCredentialMigrator().migrate("new-token").getId());
+        assertEquals(1, lookupAllCredentials().size());
+    }
+
+    private List<StringCredentials> lookupAllCredentials() {
+        return com.cloudbees.plugins.credentials.CredentialsProvider.lookupCredentials(StringCredentials.class,
+                Jenkins.getInstance(), ACL.SYSTEM, Collections.emptyList());
+    }
+
     private StringCredentials lookupCredentials(String credentialId) {
         List<StringCredentials> credentials = com.cloudbees.plugins.credentials.CredentialsProvider.lookupCredentials(StringCredentials.class, Jenkins.getInstance(), ACL.SYSTEM, Collections
                 .emptyList());
@@ -0,0 +1,103 @@
+package jenkins.plugins.slack.decisions;
+
+import hudson.model.Result;
+import jenkins.plugins.slack.SlackNotifier;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class NotificationTableTest {
+
+    private static final Result[] RESULTS = {
+            Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED, null
+    };
+
+    private SlackNotifier preferences;
+    private BuildAwareLogger log;
+
+    @Before
+    public void setup() {
+        preferences = mock(SlackNotifier.class);
+        log = mock(BuildAwareLogger.class);
+    }
+
+    @Test
+    public void matchesTheConditionsForEveryPairOfResults() {
+        given(preferences.getNotifyFailure()).willReturn(true);
+        given(preferences.getNotifyBackToNormal()).willReturn(true);
+        given(preferences.getNotifyUnstable()).willReturn(true);
+
+        NotificationTable table = NotificationTable.compile(preferences);
+
+        for (Result current : RESULTS) {
+            for (Result previous : RESULTS) {
+                if (previous == null) {
+                    continue;
+                }
+                Context context = context(current, previous);
+                boolean expected = new NotificationConditions(NotificationConditions.conditions(preferences, log))
+                        .test(context);
+                assertEquals(current + " after " + previous, expected, table.lookup(current, previous) != null);
+            }
+        }
+    }
+
+    @Test
+    public void namesTheFirstConditionThatSends() {
+        given(preferences.getNotifyBackToNormal()).willReturn(true);
+        given(preferences.getNotifySuccess()).willReturn(true);
+
+        NotificationTable table = NotificationTable.compile(preferences);
+
+        assertEquals("OnBackToNormal", table.lookup(Result.SUCCESS, Result.FAILURE));
+        assertEquals("OnSuccess", table.lookup(Result.SUCCESS, Result.SUCCESS));
+        assertNull(table.lookup(Result.FAILURE, Result.SUCCESS));
+        assertNull(table.lookup(null, Result.SUCCESS));
+    }
+
+    @Test
+    public void readsThePreferencesOnlyWhenCompiled() {
+        SlackNotifier compiled = mock(SlackNotifier.class);
+        given(compiled.getNotifyFailure()).willReturn(true);
+        given(preferences.getNotificationTable()).willReturn(NotificationTable.compile(compiled));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(NotificationConditions.create(preferences, log).test(context(Result.FAILURE, Result.SUCCESS)));
+        }
+
+        verify(preferences, never()).getNotifyFailure();
+        verify(log, times(100)).info("job #1",
+                "will send OnSingleFailureNotification because build matches and user preferences allow it");
+    }
+
+    @Test
+    public void explainsEachConditionWhenDebugging() {
+        given(log.isDebugEnabled()).willReturn(true);
+        given(preferences.getNotificationTable()).willReturn(NotificationTable.compile(preferences));
+
+        assertFalse(NotificationConditions.create(preferences, log).test(context(Result.SUCCESS, Result.SUCCESS)));
+
+        verify(log).debug("job #1", "does not match OnAbortedNotification condition");
+        verify(log).debug("job #1", "will NOT send OnSuccessNotification - build matches but user preferences do not allow it");
+        verify(log, never()).info("job #1",
+                "will send OnSuccessNotification because build matches and user preferences allow it");
+    }
+
+    private static Context context(Result current, Result previous) {
+        Context context = mock(Context.class);
+        given(context.currentKey()).willReturn("job #1");
+        given(context.currentResult()).willReturn(current);
+        given(context.previousResultOrSuccess()).willReturn(previous);
+        return context;
+    }
+}
@@ -0,0 +1,37 @@
+package jenkins.plugins.slack.dispatch;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.SlackService;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncSlackServiceTest {
+
+    @Test
+    public void publishReturnsBeforeTheDelegateFinishes() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch published = new CountDownLatch(1);
+        SlackService delegate = mock(SlackService.class);
+        when(delegate.publish("message", "good")).thenAnswer(invocation -> {
+            if (release.await(10, TimeUnit.SECONDS)) {
+                published.countDown();
+            }
+            return true;
+        });
+
+        assertTrue(new AsyncSlackService(delegate).publish("message", "good"));
+
+        release.countDown();
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void responseStringIsNotAvailable() {
+        assertNull(new AsyncSlackService(mock(SlackService.class)).getResponseString());
+    }
+}
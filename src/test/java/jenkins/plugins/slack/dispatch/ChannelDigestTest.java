@@ -0,0 +1,79 @@
+package jenkins.plugins.slack.dispatch;
+
+import hudson.model.Result;
+import jenkins.plugins.slack.SlackService;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ChannelDigestTest {
+
+    @Test
+    public void countsBuildsByResultAndListsUnsuccessfulOnes() {
+        ChannelDigest.Digest digest = new ChannelDigest.Digest();
+        SlackService slackService = mock(SlackService.class);
+        digest.add(slackService, Result.SUCCESS, "a - #1 Success");
+        digest.add(slackService, Result.FAILURE, "b - #4 Failure");
+        digest.add(slackService, Result.SUCCESS, "c - #2 Success");
+        digest.add(slackService, Result.UNSTABLE, "d - #9 Unstable");
+
+        assertEquals("4 builds completed: 1 FAILURE, 1 UNSTABLE, 2 SUCCESS\n- b - #4 Failure\n- d - #9 Unstable",
+                digest.getMessage());
+        assertEquals("danger", digest.getColor());
+    }
+
+    @Test
+    public void successfulBuildsAreGood() {
+        ChannelDigest.Digest digest = new ChannelDigest.Digest();
+        digest.add(mock(SlackService.class), Result.SUCCESS, "a - #1 Success");
+
+        assertEquals("1 build completed: 1 SUCCESS", digest.getMessage());
+        assertEquals("good", digest.getColor());
+    }
+
+    @Test
+    public void listOfUnsuccessfulBuildsIsCapped() {
+        ChannelDigest.Digest digest = new ChannelDigest.Digest();
+        SlackService slackService = mock(SlackService.class);
+        for (int i = 0; i < ChannelDigest.MAX_LISTED_BUILDS + 2; i++) {
+            digest.add(slackService, Result.UNSTABLE, "job - #" + i);
+        }
+
+        assertEquals("warning", digest.getColor());
+        assertTrue(digest.getMessage().endsWith("\n- job - #" + (ChannelDigest.MAX_LISTED_BUILDS - 1) + "\n- and 2 more"));
+    }
+
+    @Test
+    public void intervalOfAnEarlyPostedSummaryDoesNotCloseTheNextOne() throws InterruptedException {
+        ChannelDigest.configure(1, 2);
+        try {
+            SlackService slackService = mock(SlackService.class);
+            ChannelDigest.add("early#room", slackService, Result.SUCCESS, "a - #1 Success");
+            ChannelDigest.add("early#room", slackService, Result.SUCCESS, "a - #2 Success");
+            Thread.sleep(500);
+            ChannelDigest.add("early#room", slackService, Result.FAILURE, "a - #3 Failure");
+            Thread.sleep(700);
+
+            verify(slackService, never()).publish(startsWith("1 build"), anyString());
+        } finally {
+            ChannelDigest.configure(0, 0);
+            ChannelDigest.flushAll();
+        }
+    }
+
+    @Test
+    public void summariesAreNotMergedIntoAJobsWindowOrQueuedTwice() {
+        SlackService slackService = mock(SlackService.class);
+
+        SlackService wrapped = new CoalescingSlackService(new AsyncSlackService(slackService), "job#room", 1000);
+
+        assertSame(slackService, ChannelDigest.unwrap(wrapped));
+    }
+}
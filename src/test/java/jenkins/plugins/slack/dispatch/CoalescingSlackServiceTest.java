@@ -0,0 +1,89 @@
+package jenkins.plugins.slack.dispatch;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.slack.SlackService;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CoalescingSlackServiceTest {
+
+    @Test
+    public void notificationsWithinTheWindowAreMerged() throws InterruptedException {
+        CountDownLatch published = new CountDownLatch(1);
+        SlackService delegate = mock(SlackService.class);
+        when(delegate.publish("started\nfailed", "danger")).thenAnswer(invocation -> {
+            published.countDown();
+            return true;
+        });
+
+        assertTrue(new CoalescingSlackService(delegate, "merged#room", 200).publish("started", "good"));
+        assertTrue(new CoalescingSlackService(delegate, "merged#room", 200).publish("failed", "danger"));
+
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void windowOfAnEarlyFlushedDigestDoesNotCloseTheNextOne() throws InterruptedException {
+        SlackService delegate = mock(SlackService.class);
+        CoalescingSlackService full = new CoalescingSlackService(delegate, "early#room", 200);
+        for (int i = 0; i < NotificationCoalescer.MAX_MESSAGES; i++) {
+            full.publish("message " + i, "good");
+        }
+
+        new CoalescingSlackService(delegate, "early#room", 10000).publish("late", "good");
+        Thread.sleep(600);
+
+        verify(delegate, never()).publish("late", "good");
+        NotificationCoalescer.flushAll();
+    }
+
+    @Test
+    public void digestFlushedByAWorkerIsSentWhenTheQueueIsFull() throws InterruptedException {
+        NotificationDispatcher.configure(1, 1, DispatchOverflowPolicy.BLOCK);
+        try {
+            CountDownLatch queueFull = new CountDownLatch(1);
+            CountDownLatch published = new CountDownLatch(1);
+            SlackService delegate = mock(SlackService.class);
+            when(delegate.publish(anyString(), anyString())).thenAnswer(invocation -> {
+                published.countDown();
+                return true;
+            });
+            CoalescingSlackService service = new CoalescingSlackService(new AsyncSlackService(delegate), "full#room", 10000);
+
+            NotificationDispatcher.dispatch(() -> {
+                try {
+                    queueFull.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // reaching the maximum flushes the digest on this worker
+                for (int i = 0; i < NotificationCoalescer.MAX_MESSAGES; i++) {
+                    service.publish("message " + i, "good");
+                }
+            });
+            NotificationDispatcher.dispatch(() -> { });
+            queueFull.countDown();
+
+            assertTrue(published.await(10, TimeUnit.SECONDS));
+        } finally {
+            NotificationDispatcher.configure(NotificationDispatcher.DEFAULT_WORKERS, NotificationDispatcher.DEFAULT_CAPACITY,
+                    DispatchOverflowPolicy.BLOCK);
+        }
+    }
+
+    @Test
+    public void notificationsWithAttachmentsAreNotMerged() {
+        SlackService delegate = mock(SlackService.class);
+
+        new CoalescingSlackService(delegate, "attachments#room", 200).publish("message", null, "good");
+
+        verify(delegate).publish("message", null, "good");
+    }
+}
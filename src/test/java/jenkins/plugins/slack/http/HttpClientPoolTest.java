@@ -0,0 +1,69 @@
+package jenkins.plugins.slack.http;
+
+import hudson.ProxyConfiguration;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class HttpClientPoolTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @After
+    public void tearDown() {
+        HttpClientPool.configure(0, 0, 0);
+        HttpClientPool.shutdown();
+    }
+
+    @Test
+    public void clientIsReusedWhileNothingChanges() {
+        assertSame(HttpClientPool.get(), HttpClientPool.get());
+    }
+
+    @Test
+    public void equalProxyConfigurationKeepsTheClient() {
+        j.jenkins.proxy = new ProxyConfiguration("proxy.example.com", 3128, "user", "secret");
+        CloseableHttpClient client = HttpClientPool.get();
+
+        j.jenkins.proxy = new ProxyConfiguration("proxy.example.com", 3128, "user", "secret");
+
+        assertSame(client, HttpClientPool.get());
+    }
+
+    @Test
+    public void changedProxyRebuildsTheClient() {
+        j.jenkins.proxy = new ProxyConfiguration("proxy.example.com", 3128, "user", "secret");
+        CloseableHttpClient client = HttpClientPool.get();
+
+        j.jenkins.proxy = new ProxyConfiguration("proxy.example.com", 3128, "user", "changed");
+
+        assertNotSame(client, HttpClientPool.get());
+    }
+
+    @Test
+    public void changedIdleTimeoutRebuildsTheClient() {
+        CloseableHttpClient client = HttpClientPool.get();
+
+        HttpClientPool.configure(0, 0, HttpClientPool.DEFAULT_IDLE_TIMEOUT_SECONDS + 1);
+
+        assertNotSame(client, HttpClientPool.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void replacedClientIsShutDownByTheNextMaintenance() throws Exception {
+        CloseableHttpClient client = HttpClientPool.get();
+        HttpClientPool.configure(HttpClientPool.DEFAULT_MAX_CONNECTIONS + 1, 0, 0);
+        HttpClientPool.get();
+
+        HttpClientPool.evictIdleConnections();
+
+        client.execute(new HttpGet("http://localhost/"));
+    }
+}
@@ -0,0 +1,82 @@
+package jenkins.plugins.slack.http;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonPayloadEntityTest {
+
+    @Test
+    public void writesJsonLibValues() throws Exception {
+        JSONObject attachment = new JSONObject();
+        attachment.put("fallback", "Build \"#1\" failed \u2013 see <http://jenkins|Open>");
+        attachment.put("short", false);
+        JSONArray attachments = new JSONArray();
+        attachments.add(attachment);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("channel", "#general");
+        payload.put("attachments", attachments);
+        payload.put("count", 3);
+
+        String json = EntityUtils.toString(JsonPayloadEntity.json(payload), StandardCharsets.UTF_8);
+
+        assertEquals(JSONObject.fromObject(payload), JSONObject.fromObject(json));
+    }
+
+    @Test
+    public void formEntityUrlEncodesThePayload() throws Exception {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("text", "50% done & still going \u2713");
+
+        JsonPayloadEntity entity = JsonPayloadEntity.form("payload", payload);
+        String body = EntityUtils.toString(entity);
+
+        assertTrue(body.startsWith("payload="));
+        assertEquals("{\"text\":\"50% done & still going \u2713\"}",
+                URLDecoder.decode(body.substring("payload=".length()), "UTF-8"));
+        assertEquals("application/x-www-form-urlencoded; charset=UTF-8", entity.getContentType().getValue());
+    }
+
+    @Test
+    public void sharedFieldsAreSplicedAfterTheRoomFields() throws Exception {
+        Map<String, Object> shared = new LinkedHashMap<>();
+        shared.put("text", "message");
+        shared.put("link_names", "1");
+        JsonPayloadEntity.SharedFields sharedFields = JsonPayloadEntity.SharedFields.of(shared);
+
+        JsonPayloadEntity room1 = JsonPayloadEntity.json(Collections.singletonMap("channel", "#room1"), sharedFields);
+        JsonPayloadEntity room2 = JsonPayloadEntity.form("payload", Collections.singletonMap("channel", "#room2"), sharedFields);
+
+        String json = EntityUtils.toString(room1);
+        assertEquals("{\"channel\":\"#room1\",\"text\":\"message\",\"link_names\":\"1\"}", json);
+        assertEquals(json.length(), room1.getContentLength());
+        String form = EntityUtils.toString(room2);
+        assertEquals("payload={\"channel\":\"#room2\",\"text\":\"message\",\"link_names\":\"1\"}",
+                URLDecoder.decode(form, "UTF-8"));
+        assertEquals(form.length(), room2.getContentLength());
+    }
+
+    @Test
+    public void emptyPayloadIsAnEmptyObject() throws Exception {
+        assertEquals("{}", EntityUtils.toString(JsonPayloadEntity.json(Collections.emptyMap())));
+    }
+
+    @Test
+    public void entityCanBeWrittenAgain() throws Exception {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("text", "message");
+        JsonPayloadEntity entity = JsonPayloadEntity.json(payload);
+
+        assertTrue(entity.isRepeatable());
+        assertEquals(EntityUtils.toString(entity), EntityUtils.toString(entity));
+    }
+}
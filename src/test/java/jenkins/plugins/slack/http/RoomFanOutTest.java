@@ -0,0 +1,103 @@
+package jenkins.plugins.slack.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RoomFanOutTest {
+
+    @Test
+    public void resultsAreInTheOrderOfTheTasks() {
+        List<Supplier<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int room = i;
+            tasks.add(() -> {
+                sleep(10 * (5 - room));
+                return room;
+            });
+        }
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), RoomFanOut.invokeAll(tasks, (i, e) -> -1));
+    }
+
+    @Test
+    public void callerSendsTheRoomsNoThreadIsFreeFor() {
+        Thread caller = Thread.currentThread();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Supplier<Thread>> tasks = new ArrayList<>();
+        tasks.add(Thread::currentThread);
+        for (int i = 0; i < 16; i++) {
+            tasks.add(() -> {
+                await(release);
+                return Thread.currentThread();
+            });
+        }
+        tasks.add(() -> {
+            release.countDown();
+            return Thread.currentThread();
+        });
+
+        List<Thread> threads = RoomFanOut.invokeAll(tasks, (i, e) -> null);
+
+        assertSame(caller, threads.get(0));
+        for (int i = 1; i <= 16; i++) {
+            assertNotSame(caller, threads.get(i));
+        }
+        assertSame(caller, threads.get(17));
+    }
+
+    @Test
+    public void aFailingRoomKeepsTheResultsOfTheOthers() {
+        List<Supplier<String>> tasks = Arrays.asList(
+                () -> "#room1",
+                () -> {
+                    throw new IllegalStateException("room2");
+                },
+                () -> "#room3"
+        );
+
+        List<String> results = RoomFanOut.invokeAll(tasks, (i, e) -> "failed " + i + ": " + e.getMessage());
+
+        assertEquals(Arrays.asList("#room1", "failed 1: room2", "#room3"), results);
+    }
+
+    @Test
+    public void aFailingFirstRoomKeepsTheResultsOfTheOthers() {
+        List<Supplier<String>> tasks = Arrays.asList(
+                () -> {
+                    throw new IllegalStateException("room1");
+                },
+                () -> "#room2"
+        );
+
+        List<String> results = RoomFanOut.invokeAll(tasks, (i, e) -> "failed " + i + ": " + e.getMessage());
+
+        assertEquals(Arrays.asList("failed 0: room1", "#room2"), results);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the caller");
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
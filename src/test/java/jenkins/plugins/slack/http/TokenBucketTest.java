@@ -0,0 +1,47 @@
+package jenkins.plugins.slack.http;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    @Test
+    public void burstIsServedWithoutWaiting() {
+        TokenBucket bucket = new TokenBucket(3, 1, 1, TimeUnit.MINUTES);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+    }
+
+    @Test
+    public void reservationBeyondTheBurstWaitsForARefill() {
+        TokenBucket bucket = new TokenBucket(1, 1, 1, TimeUnit.MINUTES);
+        bucket.reserve();
+
+        long wait = bucket.reserve();
+
+        assertTrue(wait > TimeUnit.SECONDS.toNanos(55));
+        assertTrue(wait <= TimeUnit.MINUTES.toNanos(1));
+    }
+
+    @Test
+    public void cancelledReservationIsGivenBack() {
+        TokenBucket bucket = new TokenBucket(1, 1, 1, TimeUnit.MINUTES);
+        bucket.reserve();
+        bucket.cancel();
+
+        assertEquals(0, bucket.reserve());
+    }
+
+    @Test
+    public void pauseHoldsBackReservations() {
+        TokenBucket bucket = new TokenBucket(10, 10, 1, TimeUnit.SECONDS);
+        bucket.pause(5, TimeUnit.SECONDS);
+
+        assertTrue(bucket.reserve() > TimeUnit.SECONDS.toNanos(4));
+    }
+}
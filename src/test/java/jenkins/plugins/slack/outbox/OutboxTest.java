@@ -0,0 +1,137 @@
+package jenkins.plugins.slack.outbox;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jenkins.plugins.slack.SlackPostResult;
+import jenkins.plugins.slack.SlackService;
+import net.sf.json.JSONArray;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OutboxTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Outbox outbox;
+
+    @Before
+    public void setUp() throws Exception {
+        outbox = new Outbox(folder.newFolder("slack-outbox"));
+    }
+
+    @Test
+    public void drainSendsStoredRecordsAndRemovesThem() {
+        outbox.append(record("#room1"));
+        outbox.append(record("#room2"));
+
+        List<OutboxRecord> sent = new ArrayList<>();
+        outbox.drain(sent::add);
+
+        assertEquals(2, sent.size());
+        assertEquals("#room1", sent.get(0).getRoom());
+        assertEquals("token", sent.get(0).getToken());
+        assertEquals("[{\"color\":\"good\"}]", sent.get(0).getAttachments());
+
+        List<OutboxRecord> sentAgain = new ArrayList<>();
+        outbox.drain(sentAgain::add);
+        assertTrue(sentAgain.isEmpty());
+    }
+
+    @Test
+    public void failedRecordIsKeptForALaterAttempt() throws Exception {
+        outbox.append(record("#room1"));
+
+        outbox.drain(record -> false);
+
+        File[] segments = folder.getRoot().toPath().resolve("slack-outbox").toFile().listFiles();
+        assertEquals(1, segments.length);
+        List<OutboxRecord> due = new ArrayList<>();
+        outbox.drain(due::add);
+        assertTrue("record shouldn't be due again straight away", due.isEmpty());
+    }
+
+    @Test
+    public void rejectedRecordIsNotReplayed() {
+        outbox.append(record("#deleted-channel"));
+        RespondingService service = new RespondingService(SlackPostResult.Status.REJECTED);
+
+        outbox.drain(record -> OutboxReplayer.send(record, service));
+
+        assertEquals(1, service.posts);
+        assertEquals(0, folder.getRoot().toPath().resolve("slack-outbox").toFile().listFiles().length);
+    }
+
+    @Test
+    public void unavailableRecordIsReplayedLater() {
+        outbox.append(record("#room1"));
+
+        outbox.drain(record -> OutboxReplayer.send(record, new RespondingService(SlackPostResult.Status.UNAVAILABLE)));
+
+        assertEquals(1, folder.getRoot().toPath().resolve("slack-outbox").toFile().listFiles().length);
+    }
+
+    @Test
+    public void recordSurvivesTheRoundTripToJson() throws Exception {
+        OutboxRecord record = record("#room1:1528317530");
+
+        OutboxRecord read = OutboxRecord.fromJson(record.toJson());
+
+        assertEquals(record.getId(), read.getId());
+        assertEquals("#room1:1528317530", read.getRoom());
+        assertEquals("message", read.getMessage());
+        assertEquals("good", read.getColor());
+        assertEquals(1, read.getAttempts());
+    }
+
+    private static OutboxRecord record(String room) {
+        return OutboxRecord.create("", "domain", false, room, false, "token", "message",
+                "[{\"color\":\"good\"}]", "good");
+    }
+
+    private static class RespondingService implements SlackService {
+        private final SlackPostResult.Status status;
+        private int posts;
+
+        RespondingService(SlackPostResult.Status status) {
+            this.status = status;
+        }
+
+        @Override
+        public boolean publish(String message) {
+            return false;
+        }
+
+        @Override
+        public boolean publish(String message, String color) {
+            return false;
+        }
+
+        @Override
+        public boolean publish(String message, JSONArray attachments, String color) {
+            return false;
+        }
+
+        @Override
+        public List<SlackPostResult> publishWithResults(String message, JSONArray attachments, String color) {
+            posts++;
+            return Collections.singletonList(SlackPostResult.failed("#room", status, 404, 0, "channel_not_found"));
+        }
+
+        @Override
+        public String getResponseString() {
+            return null;
+        }
+    }
+}
@@ -7,11 +7,14 @@ import hudson.model.TaskListener;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import jenkins.model.Jenkins;
 import jenkins.plugins.slack.CredentialsObtainer;
 import jenkins.plugins.slack.SlackNotifier;
+import jenkins.plugins.slack.SlackPostResult;
 import jenkins.plugins.slack.SlackService;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
@@ -98,11 +101,11 @@ public class SlackSendStepTest {
         doNothing().when(printStreamMock).println();
 
         when(stepExecution.getSlackService(anyString(), anyString(), anyBoolean(), anyString(), anyBoolean(), anyString())).thenReturn(slackServiceMock);
-        when(slackServiceMock.publish(anyString(), anyString())).thenReturn(true);
+        when(slackServiceMock.publishWithResults(anyString(), anyString())).thenReturn(delivered(null));
 
         stepExecution.run();
         verify(stepExecution, times(1)).getSlackService("baseUrl/", "teamDomain", true, "channel", false, token);
-        verify(slackServiceMock, times(1)).publish("message", "good");
+        verify(slackServiceMock, times(1)).publishWithResults("message", "good");
     }
 
     @Test
@@ -129,8 +132,8 @@ public class SlackSendStepTest {
         when(stepExecution.getSlackService(anyString(), anyString(), anyBoolean(), anyString(), anyBoolean(), anyString())).thenReturn(slackServiceMock);
 
         stepExecution.run();
-        verify(slackServiceMock, times(0)).publish("message", "");
-        verify(slackServiceMock, times(1)).publish("message", attachments, "");
+        verify(slackServiceMock, times(0)).publishWithResults("message", "");
+        verify(slackServiceMock, times(1)).publishWithResults("message", attachments, "");
 
     }
 
@@ -157,7 +160,7 @@ public class SlackSendStepTest {
         when(stepExecution.getSlackService(anyString(), anyString(), anyBoolean(), anyString(), anyBoolean(), anyString())).thenReturn(slackServiceMock);
 
         stepExecution.run();
-        verify(slackServiceMock, times(0)).publish("message", "");
+        verify(slackServiceMock, times(0)).publishWithResults("message", "");
 
         JSONArray expectedAttachments = new JSONArray();
         JSONObject jsonObject = new JSONObject();
@@ -166,7 +169,7 @@ public class SlackSendStepTest {
         jsonObject.put("author_icon", "Avatar for author");
         jsonObject.put("fallback", "message");
         expectedAttachments.add(jsonObject);
-        verify(slackServiceMock, times(1)).publish("message", expectedAttachments, "");
+        verify(slackServiceMock, times(1)).publishWithResults("message", expectedAttachments, "");
     }
 
     @Test
@@ -195,7 +198,7 @@ public class SlackSendStepTest {
 
         stepExecution.run();
         verify(stepExecution, times(1)).getSlackService("globalBaseUrl", "globalTeamDomain", false, "globalChannel", false, "token2");
-        verify(slackServiceMock, times(1)).publish("message", "");
+        verify(slackServiceMock, times(1)).publishWithResults("message", "");
     }
 
 
@@ -225,7 +228,7 @@ public class SlackSendStepTest {
 
         verify(stepExecution, times(1)).getSlackService("globalBaseUrl", "globalTeamDomain",
                 false, "globalChannel", false, "runcredentials");
-        verify(slackServiceMock, times(1)).publish("message", "");
+        verify(slackServiceMock, times(1)).publishWithResults("message", "");
     }
 
     @Test
@@ -255,7 +258,7 @@ public class SlackSendStepTest {
 
         stepExecution.run();
         verify(stepExecution, times(1)).getSlackService("globalBaseUrl", "globalTeamDomain", false, "globalChannel", true, "token");
-        verify(slackServiceMock, times(1)).publish("message", "");
+        verify(slackServiceMock, times(1)).publishWithResults("message", "");
     }
 
     @Test
@@ -276,7 +279,7 @@ public class SlackSendStepTest {
         when(stepExecution.getSlackService(anyString(), anyString(), anyBoolean(), anyString(), anyBoolean(), anyString())).thenReturn(slackServiceMock);
 
         stepExecution.run();
-        verify(slackServiceMock, times(1)).publish("message", "");
+        verify(slackServiceMock, times(1)).publishWithResults("message", "");
     }
 
     @Test
@@ -305,8 +308,7 @@ public class SlackSendStepTest {
         String savedResponse = IOUtils.toString(
                 this.getClass().getResourceAsStream("response.json")
         );
-        when(slackServiceMock.getResponseString()).thenReturn(savedResponse);
-        when(slackServiceMock.publish(anyString(), anyString())).thenReturn(true);
+        when(slackServiceMock.publishWithResults(anyString(), anyString())).thenReturn(delivered(savedResponse));
 
         SlackResponse response = stepExecution.run();
         String expectedId = "F4KE1DABC";
@@ -342,8 +344,7 @@ public class SlackSendStepTest {
 
         when(stepExecution.getSlackService(anyString(), anyString(), anyBoolean(), anyString(), anyBoolean(), anyString())).thenReturn(slackServiceMock);
 
-        when(slackServiceMock.getResponseString()).thenReturn(null);
-        when(slackServiceMock.publish(anyString(), anyString())).thenReturn(true);
+        when(slackServiceMock.publishWithResults(anyString(), anyString())).thenReturn(delivered(null));
 
         SlackResponse response = stepExecution.run();
         assertNotNull(response);
@@ -351,4 +352,8 @@ public class SlackSendStepTest {
         assertNull(response.getTs());
         assertNull(response.getThreadId());
     }
+
+    private static List<SlackPostResult> delivered(String responseBody) {
+        return Collections.singletonList(SlackPostResult.delivered("channel", 200, 0, responseBody));
+    }
 }